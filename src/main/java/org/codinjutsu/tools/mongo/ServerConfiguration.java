@@ -30,6 +30,7 @@ import static java.util.Collections.singletonList;
 public class ServerConfiguration implements Cloneable {
 
     public static final int DEFAULT_ROW_LIMIT = 300;
+    public static final int DEFAULT_MAX_TIME_IN_MILLIS = 0;
 
     private static final String DEFAULT_URL = "localhost";
     private static final int DEFAULT_PORT = 27017;
@@ -53,6 +54,7 @@ public class ServerConfiguration implements Cloneable {
     private String shellArgumentsLine;
     private String shellWorkingDir;
     private Integer defaultRowLimit = DEFAULT_ROW_LIMIT;
+    private Integer defaultMaxTimeInMillis = DEFAULT_MAX_TIME_IN_MILLIS;
 
     private SshTunnelingConfiguration sshTunnelingConfiguration;
 
@@ -160,6 +162,17 @@ public class ServerConfiguration implements Cloneable {
         this.defaultRowLimit = defaultRowLimit;
     }
 
+    /**
+     * @return the server side time limit applied to the queries which do not set their own, 0 meaning no limit
+     */
+    public Integer getDefaultMaxTimeInMillis() {
+        return defaultMaxTimeInMillis;
+    }
+
+    public void setDefaultMaxTimeInMillis(Integer defaultMaxTimeInMillis) {
+        this.defaultMaxTimeInMillis = defaultMaxTimeInMillis;
+    }
+
     public void setSshTunnelingConfiguration(SshTunnelingConfiguration sshTunnelingConfiguration) {
         this.sshTunnelingConfiguration = sshTunnelingConfiguration;
     }
@@ -206,13 +219,14 @@ public class ServerConfiguration implements Cloneable {
                 Objects.equals(shellArgumentsLine, that.shellArgumentsLine) &&
                 Objects.equals(shellWorkingDir, that.shellWorkingDir) &&
                 Objects.equals(defaultRowLimit, that.defaultRowLimit) &&
+                Objects.equals(defaultMaxTimeInMillis, that.defaultMaxTimeInMillis) &&
                 Objects.equals(sshTunnelingConfiguration, that.sshTunnelingConfiguration);
     }
 
     @Override
     public int hashCode() {
 
-        return Objects.hash(label, serverUrls, sslConnection, readPreference, username, password, authenticationDatabase, authenticationMechanism, userDatabase, collectionsToIgnore, shellArgumentsLine, shellWorkingDir, defaultRowLimit, sshTunnelingConfiguration);
+        return Objects.hash(label, serverUrls, sslConnection, readPreference, username, password, authenticationDatabase, authenticationMechanism, userDatabase, collectionsToIgnore, shellArgumentsLine, shellWorkingDir, defaultRowLimit, defaultMaxTimeInMillis, sshTunnelingConfiguration);
     }
 
     public ServerConfiguration clone() {
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.logic;
+
+import org.bson.Document;
+import org.codinjutsu.tools.mongo.model.ExportFormat;
+import org.codinjutsu.tools.mongo.model.MongoExportOptions;
+import org.codinjutsu.tools.mongo.utils.MongoUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the documents to a file one at a time as they come out of the cursor, so that only the current document
+ * is held in memory.
+ * <p>
+ * The CSV columns are the top-level fields of the first documents: these are held until there are enough of them
+ * to tell the header, and the fields appearing only afterwards are left out.
+ */
+public class DocumentExportWriter implements Closeable {
+
+    static final int CSV_HEADER_SAMPLE_SIZE = 1000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private final ExportFormat format;
+    private long writtenDocuments = 0;
+
+    private final List<Document> csvSample = new ArrayList<>();
+    private List<String> csvColumns;
+
+    public static DocumentExportWriter open(File file, MongoExportOptions exportOptions) throws IOException {
+        OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file.toPath()), BUFFER_SIZE);
+        if (exportOptions.isGzip()) {
+            try {
+                outputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+            } catch (IOException ex) {
+                outputStream.close();
+                throw ex;
+            }
+        }
+        return new DocumentExportWriter(
+                new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE),
+                exportOptions.getFormat());
+    }
+
+    DocumentExportWriter(Writer writer, ExportFormat format) {
+        this.writer = writer;
+        this.format = format;
+    }
+
+    public void write(Document document) {
+        try {
+            switch (format) {
+                case NDJSON:
+                    MongoUtils.writeJson(document, writer);
+                    writer.write('\n');
+                    break;
+                case JSON_ARRAY:
+                    writer.write(writtenDocuments == 0 ? "[\n" : ",\n");
+                    MongoUtils.writeJson(document, writer);
+                    break;
+                case CSV:
+                    if (csvColumns != null) {
+                        writeCsvRow(document);
+                    } else {
+                        csvSample.add(document);
+                        if (csvSample.size() >= CSV_HEADER_SAMPLE_SIZE) {
+                            writeCsvHeaderAndSample();
+                        }
+                    }
+                    break;
+            }
+            writtenDocuments++;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (format == ExportFormat.CSV && csvColumns == null) {
+                writeCsvHeaderAndSample();
+            } else if (format == ExportFormat.JSON_ARRAY) {
+                writer.write(writtenDocuments == 0 ? "[]\n" : "\n]\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void writeCsvHeaderAndSample() throws IOException {
+        Set<String> columns = new LinkedHashSet<>();
+        for (Document document : csvSample) {
+            columns.addAll(document.keySet());
+        }
+        csvColumns = new ArrayList<>(columns);
+
+        writeCsvLine(csvColumns);
+        for (Document document : csvSample) {
+            writeCsvRow(document);
+        }
+        csvSample.clear();
+    }
+
+    private void writeCsvRow(Document document) throws IOException {
+        List<String> values = new ArrayList<>(csvColumns.size());
+        for (String column : csvColumns) {
+            values.add(toCsvValue(document.get(column)));
+        }
+        writeCsvLine(values);
+    }
+
+    private void writeCsvLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String toCsvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Document) {
+            StringWriter jsonWriter = new StringWriter();
+            MongoUtils.writeJson((Document) value, jsonWriter);
+            return jsonWriter.toString();
+        }
+        if (value instanceof List) {
+            return MongoUtils.stringifyList((List) value);
+        }
+        if (value instanceof Date) {
+            return ((Date) value).toInstant().toString();
+        }
+        return value.toString();
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
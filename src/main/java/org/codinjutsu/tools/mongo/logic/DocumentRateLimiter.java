@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.logic;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out the writes of several threads so that they do not exceed a number of documents per second on average.
+ * A write reserves the time slot following the previous one and only waits for it to start.
+ */
+class DocumentRateLimiter {
+
+    private final long nanosPerDocument;
+    private long nextSlotNanos = System.nanoTime();
+
+    /**
+     * @param maxDocumentsPerSecond 0 for no limit
+     */
+    DocumentRateLimiter(int maxDocumentsPerSecond) {
+        this.nanosPerDocument = maxDocumentsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxDocumentsPerSecond : 0;
+    }
+
+    void acquire(int documents) {
+        if (nanosPerDocument == 0) {
+            return;
+        }
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slotStart = Math.max(nextSlotNanos, now);
+            nextSlotNanos = slotStart + documents * nanosPerDocument;
+            waitNanos = slotStart - now;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ConfigurationException(ex);
+            }
+        }
+    }
+}
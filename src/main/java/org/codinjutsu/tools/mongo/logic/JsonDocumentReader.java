@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.logic;
+
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the documents of a JSON file one at a time, so that only the current document is held in memory.
+ * <p>
+ * The file may hold a single document, an array of documents or documents separated by newlines (NDJSON).
+ * Each document is cut out of the stream by following the nesting of its braces, outside of the strings and of the
+ * regular expressions, and is then parsed by the driver, so that the extended JSON types ($oid, $date, ...) and the
+ * shell mode values are supported as before.
+ * <p>
+ * Between the documents, an array holds exactly one comma between two elements and must be closed at the end of the
+ * file. Anything else is reported with its byte offset.
+ */
+public class JsonDocumentReader implements Iterator<Document>, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private enum State {
+        START,
+        DOCUMENTS,
+        ARRAY_START,
+        ARRAY_ELEMENT,
+        ARRAY_COMMA,
+        END
+    }
+
+    private final Reader reader;
+    private final long length;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferLength = 0;
+    private int bufferPosition = 0;
+    private long readBytes = 0;
+    private long characterOffset = 0;
+
+    private State state = State.START;
+    private final StringBuilder documentBuilder = new StringBuilder();
+    private Document nextDocument;
+
+    /**
+     * @param inputStream the UTF-8 encoded content
+     * @param length      the length of the content in bytes, only used to tell how much of it is read
+     */
+    public JsonDocumentReader(InputStream inputStream, long length) {
+        this.reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        this.length = length;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextDocument == null) {
+            nextDocument = readDocument();
+        }
+        return nextDocument != null;
+    }
+
+    @Override
+    public Document next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Document document = nextDocument;
+        nextDocument = null;
+        return document;
+    }
+
+    /**
+     * @return the part of the content read so far, between 0 and 1. The bytes are counted rather than the characters,
+     * as a character may be encoded on several bytes.
+     */
+    public double getReadFraction() {
+        return length <= 0 ? 0 : Math.min(1, (double) readBytes / length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Document readDocument() {
+        int character = readDocumentStart();
+        if (character == -1) {
+            return null;
+        }
+
+        long documentOffset = characterOffset;
+        documentBuilder.setLength(0);
+        documentBuilder.append((char) character);
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+        int quote = 0;
+        while (depth > 0) {
+            character = read();
+            if (character == -1) {
+                throw new JsonParseException("Unexpected end of file in the document starting at byte offset %s with %s",
+                        documentOffset, documentBuilder.substring(0, Math.min(documentBuilder.length(), 50)));
+            }
+            documentBuilder.append((char) character);
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (character == '\\') {
+                    escaped = true;
+                } else if (character == quote) {
+                    inString = false;
+                }
+            } else if (character == '"' || character == '\'' || character == '/') {
+                // a regular expression such as /a{2}/ is skipped like a string
+                inString = true;
+                quote = character;
+            } else if (character == '{') {
+                depth++;
+            } else if (character == '}') {
+                depth--;
+            }
+        }
+        return Document.parse(documentBuilder.toString());
+    }
+
+    /**
+     * Reads what stands before the next document: whitespaces, and the brackets and the commas of an array.
+     *
+     * @return the opening brace of the next document, or -1 at the end of the content
+     */
+    private int readDocumentStart() {
+        while (true) {
+            int character = readNonWhitespace();
+            switch (state) {
+                case START:
+                    if (character == -1) {
+                        return -1;
+                    }
+                    if (character == '[') {
+                        state = State.ARRAY_START;
+                        break;
+                    }
+                    if (character == '{') {
+                        state = State.DOCUMENTS;
+                        return character;
+                    }
+                    throw unexpected(character, "a document or an array");
+                case DOCUMENTS:
+                    if (character == -1 || character == '{') {
+                        return character;
+                    }
+                    throw unexpected(character, "a document");
+                case ARRAY_START:
+                    if (character == ']') {
+                        state = State.END;
+                        break;
+                    }
+                    if (character == '{') {
+                        state = State.ARRAY_ELEMENT;
+                        return character;
+                    }
+                    throw unexpected(character, "a document or ']'");
+                case ARRAY_ELEMENT:
+                    if (character == ',') {
+                        state = State.ARRAY_COMMA;
+                        break;
+                    }
+                    if (character == ']') {
+                        state = State.END;
+                        break;
+                    }
+                    throw unexpected(character, "',' or ']'");
+                case ARRAY_COMMA:
+                    if (character == '{') {
+                        state = State.ARRAY_ELEMENT;
+                        return character;
+                    }
+                    throw unexpected(character, "a document");
+                case END:
+                    if (character == -1) {
+                        return -1;
+                    }
+                    throw unexpected(character, "the end of the file after the array");
+                default:
+                    throw new IllegalStateException("Unknown state " + state);
+            }
+        }
+    }
+
+    private JsonParseException unexpected(int character, String expected) {
+        if (character == -1) {
+            return new JsonParseException("Unexpected end of file at byte offset %s, %s was expected", readBytes, expected);
+        }
+        return new JsonParseException("Unexpected character '%s' at byte offset %s, %s was expected",
+                (char) character, characterOffset, expected);
+    }
+
+    private int readNonWhitespace() {
+        int character;
+        do {
+            character = read();
+        } while (character != -1 && Character.isWhitespace(character));
+        return character;
+    }
+
+    private int read() {
+        if (bufferPosition == bufferLength) {
+            try {
+                bufferLength = reader.read(buffer);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            bufferPosition = 0;
+            if (bufferLength <= 0) {
+                bufferLength = 0;
+                return -1;
+            }
+        }
+        char character = buffer[bufferPosition++];
+        characterOffset = readBytes;
+        readBytes += getUtf8Length(character);
+        return character;
+    }
+
+    /**
+     * @return the number of bytes of the character in UTF-8, a surrogate pair being encoded on 4 bytes
+     */
+    private static int getUtf8Length(char character) {
+        if (character < 0x80) {
+            return 1;
+        }
+        if (character < 0x800 || Character.isSurrogate(character)) {
+            return 2;
+        }
+        return 3;
+    }
+}
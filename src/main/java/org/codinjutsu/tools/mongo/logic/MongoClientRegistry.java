@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.logic;
+
+import com.mongodb.MongoClient;
+import org.codinjutsu.tools.mongo.ServerConfiguration;
+import org.codinjutsu.tools.mongo.SshTunnelingConfiguration;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one long-lived {@link MongoClient} per server configuration so that server discovery,
+ * handshake and authentication are paid once instead of on every operation.
+ * <p>
+ * Configurations are edited in place, so entries are tracked by identity and the client is rebuilt
+ * whenever the connection settings no longer match the ones it was created with. A configuration may also be
+ * replaced by a new object (for instance when the settings are reloaded), so the clients of the configurations
+ * that are no longer in use are closed whenever a new client is created.
+ */
+class MongoClientRegistry {
+
+    private final Map<ServerConfiguration, ClientEntry> clientsByConfiguration = new IdentityHashMap<>();
+
+    private final Function<ServerConfiguration, MongoClient> clientFactory;
+    private final Supplier<Collection<ServerConfiguration>> configurationsInUse;
+
+    /**
+     * @param configurationsInUse the configurations of the servers currently shown, the clients of the others are closed
+     */
+    MongoClientRegistry(Function<ServerConfiguration, MongoClient> clientFactory,
+                        Supplier<Collection<ServerConfiguration>> configurationsInUse) {
+        this.clientFactory = clientFactory;
+        this.configurationsInUse = configurationsInUse;
+    }
+
+    synchronized MongoClient getClient(ServerConfiguration configuration) {
+        List<Object> connectionKey = createConnectionKey(configuration);
+
+        ClientEntry clientEntry = clientsByConfiguration.get(configuration);
+        if (clientEntry != null) {
+            if (clientEntry.connectionKey.equals(connectionKey)) {
+                return clientEntry.mongoClient;
+            }
+            clientEntry.mongoClient.close();
+        }
+        closeUnusedClients(configuration);
+
+        MongoClient mongoClient = clientFactory.apply(configuration);
+        clientsByConfiguration.put(configuration, new ClientEntry(connectionKey, mongoClient));
+        return mongoClient;
+    }
+
+    synchronized void invalidate(ServerConfiguration configuration) {
+        ClientEntry clientEntry = clientsByConfiguration.remove(configuration);
+        if (clientEntry != null) {
+            clientEntry.mongoClient.close();
+        }
+    }
+
+    synchronized void closeAll() {
+        for (ClientEntry clientEntry : clientsByConfiguration.values()) {
+            clientEntry.mongoClient.close();
+        }
+        clientsByConfiguration.clear();
+    }
+
+    private void closeUnusedClients(ServerConfiguration requestedConfiguration) {
+        Set<ServerConfiguration> usedConfigurations = Collections.newSetFromMap(new IdentityHashMap<>());
+        usedConfigurations.addAll(configurationsInUse.get());
+        usedConfigurations.add(requestedConfiguration);
+
+        Iterator<Map.Entry<ServerConfiguration, ClientEntry>> entryIterator = clientsByConfiguration.entrySet().iterator();
+        while (entryIterator.hasNext()) {
+            Map.Entry<ServerConfiguration, ClientEntry> entry = entryIterator.next();
+            if (!usedConfigurations.contains(entry.getKey())) {
+                entry.getValue().mongoClient.close();
+                entryIterator.remove();
+            }
+        }
+    }
+
+    private static List<Object> createConnectionKey(ServerConfiguration configuration) {
+        return Arrays.asList(
+                new ArrayList<>(configuration.getServerUrls()),
+                configuration.isSslConnection(),
+                configuration.getReadPreference(),
+                configuration.getUsername(),
+                configuration.getPassword(),
+                configuration.getAuthenticationDatabase(),
+                configuration.getAuthenticationMechanism(),
+                createSshConnectionKey(configuration.getSshTunnelingConfiguration()));
+    }
+
+    private static List<Object> createSshConnectionKey(SshTunnelingConfiguration sshTunnelingConfiguration) {
+        if (SshTunnelingConfiguration.isEmpty(sshTunnelingConfiguration)) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(
+                sshTunnelingConfiguration.getProxyUrl(),
+                sshTunnelingConfiguration.getProxyUser(),
+                sshTunnelingConfiguration.getAuthenticationMethod(),
+                sshTunnelingConfiguration.getPrivateKeyPath(),
+                sshTunnelingConfiguration.getProxyPassword());
+    }
+
+    private static class ClientEntry {
+
+        private final List<Object> connectionKey;
+        private final MongoClient mongoClient;
+
+        private ClientEntry(List<Object> connectionKey, MongoClient mongoClient) {
+            this.connectionKey = connectionKey;
+            this.mongoClient = mongoClient;
+        }
+    }
+}
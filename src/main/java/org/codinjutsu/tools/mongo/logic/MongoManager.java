@@ -16,45 +16,85 @@
 
 package org.codinjutsu.tools.mongo.logic;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
 import com.mongodb.*;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.EstimatedDocumentCountOptions;
 import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import org.apache.commons.lang.StringUtils;
 import org.bson.Document;
 import org.codinjutsu.tools.mongo.ServerConfiguration;
 import org.codinjutsu.tools.mongo.SshTunnelingConfiguration;
-import org.codinjutsu.tools.mongo.logic.ssh.SshConnection;
+import org.codinjutsu.tools.mongo.logic.ssh.SshTunnelManager;
+import org.codinjutsu.tools.mongo.logic.ssh.SshTunnelStreamFactoryFactory;
 import org.codinjutsu.tools.mongo.model.*;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
-public class MongoManager {
+public class MongoManager implements Disposable {
 
-    private static final String DEFAULT_TUNNEL_LOCAL_HOST = "localhost";
-    private static final int DEFAULT_TUNNEL_LOCAL_PORT = 9080;
+    private static final int MAX_PARALLEL_STATS_REQUESTS = 4;
 
-    private static final Document EMPTY_DOC = new Document();
+    // read by the client registry from the threads running the operations
+    private final List<MongoServer> mongoServers = new CopyOnWriteArrayList<>();
 
-    private final List<MongoServer> mongoServers = new LinkedList<>();
+    private final MongoClientRegistry clientRegistry = new MongoClientRegistry(this::createMongoClient, this::getServerConfigurations);
+    private final SshTunnelManager sshTunnelManager = new SshTunnelManager(clientRegistry::invalidate);
 
     public static MongoManager getInstance(Project project) {
         return ServiceManager.getService(project, MongoManager.class);
     }
 
     public void connect(final ServerConfiguration configuration) {
-        Task task = mongoClient -> {
+        TaskWithReturnedObject<String> task = mongoClient -> {
             String userDatabase = configuration.getUserDatabase();
             String databaseName = StringUtils.isNotEmpty(userDatabase) ? userDatabase : "test";
 
-            mongoClient.getDatabase(databaseName).listCollectionNames().first();
+            return mongoClient.getDatabase(databaseName).listCollectionNames().first();
         };
 
+        // the configuration may be a draft from the edition dialog, so it must not be kept in the registry
+        if (SshTunnelingConfiguration.isEmpty(configuration.getSshTunnelingConfiguration())) {
+            executeWithNewClient(configuration, task);
+        } else {
+            try {
+                executeWithNewClient(configuration, task);
+            } finally {
+                sshTunnelManager.closeTunnel(configuration);
+            }
+        }
+    }
+
+    public void disconnect(ServerConfiguration configuration) {
+        sshTunnelManager.closeTunnel(configuration);
+        clientRegistry.invalidate(configuration);
+    }
 
-        executeTask(configuration, task);
+    @Override
+    public void dispose() {
+        sshTunnelManager.closeAll();
+        clientRegistry.closeAll();
     }
 
     public void cleanUpServers() {
@@ -69,21 +109,23 @@ public class MongoManager {
         return mongoServers;
     }
 
+    private List<ServerConfiguration> getServerConfigurations() {
+        return mongoServers.stream().map(MongoServer::getConfiguration).collect(Collectors.toList());
+    }
+
+    /**
+     * Only lists the databases, their collections are loaded with {@link #loadCollections} when they are browsed.
+     */
     public List<MongoDatabase> loadDatabases(MongoServer mongoServer, ServerConfiguration configuration) {
-        final List<MongoDatabase> mongoDatabases = new LinkedList<>();
         TaskWithReturnedObject<List<MongoDatabase>> perform = mongoClient -> {
+            final List<MongoDatabase> mongoDatabases = new LinkedList<>();
             String userDatabase = configuration.getUserDatabase();
 
             if (StringUtils.isNotEmpty(userDatabase)) {
-                com.mongodb.client.MongoDatabase database = mongoClient.getDatabase(userDatabase);
-                MongoDatabase mongoDatabase = new MongoDatabase(database.getName(), mongoServer);
-                mongoDatabases.add(createMongoDatabaseAndItsCollections(mongoDatabase, database));
+                mongoDatabases.add(new MongoDatabase(userDatabase, mongoServer));
             } else {
-                MongoIterable<String> databaseNames = mongoClient.listDatabaseNames();
-                for (String databaseName : databaseNames) {
-                    com.mongodb.client.MongoDatabase database = mongoClient.getDatabase(databaseName);
-                    MongoDatabase mongoDatabase = new MongoDatabase(database.getName(), mongoServer);
-                    mongoDatabases.add(createMongoDatabaseAndItsCollections(mongoDatabase, database));
+                for (String databaseName : mongoClient.listDatabaseNames()) {
+                    mongoDatabases.add(new MongoDatabase(databaseName, mongoServer));
                 }
             }
             return mongoDatabases;
@@ -92,12 +134,18 @@ public class MongoManager {
         return executeTask(configuration, perform);
     }
 
-    private MongoDatabase createMongoDatabaseAndItsCollections(MongoDatabase mongoDatabase, com.mongodb.client.MongoDatabase database) {
-        MongoIterable<String> collectionNames = database.listCollectionNames();
-        for (String collectionName : collectionNames) {
-            mongoDatabase.addCollection(new MongoCollection(collectionName, mongoDatabase));
-        }
-        return mongoDatabase;
+    public List<MongoCollection> loadCollections(ServerConfiguration configuration, final MongoDatabase mongoDatabase) {
+        TaskWithReturnedObject<List<MongoCollection>> perform = mongoClient -> {
+            final List<MongoCollection> mongoCollections = new LinkedList<>();
+            // listCollectionNames asks for nameOnly, so the server neither reads the collection options nor locks them
+            MongoIterable<String> collectionNames = mongoClient.getDatabase(mongoDatabase.getName()).listCollectionNames();
+            for (String collectionName : collectionNames) {
+                mongoCollections.add(new MongoCollection(collectionName, mongoDatabase));
+            }
+            return mongoCollections;
+        };
+
+        return executeTask(configuration, perform);
     }
 
     public MongoCollectionResult findMongoDocuments(ServerConfiguration configuration, final MongoCollection mongoCollection, final MongoQueryOptions mongoQueryOptions) {
@@ -108,11 +156,74 @@ public class MongoManager {
             com.mongodb.client.MongoCollection<Document> collection = database.getCollection(mongoCollection.getName());
 
             MongoCollectionResult mongoCollectionResult = new MongoCollectionResult(mongoCollection.getName());
+            mongoCollectionResult.setQueryComment(mongoQueryOptions.getComment());
+            long maxTimeInMillis = getMaxTimeInMillis(configuration, mongoQueryOptions);
             if (mongoQueryOptions.isAggregate()) {
-                return aggregate(mongoQueryOptions, mongoCollectionResult, collection);
+                return aggregate(mongoQueryOptions, maxTimeInMillis, mongoCollectionResult, collection);
+            }
+
+            return find(mongoQueryOptions, maxTimeInMillis, mongoCollectionResult, collection);
+        };
+
+        return executeTask(configuration, task);
+    }
+
+    /**
+     * Kills the server operations of the query tagged with the given comment, including the getMore of its cursor,
+     * so that a cancelled query does not keep scanning on the server.
+     */
+    @SuppressWarnings("unchecked")
+    public void killQuery(ServerConfiguration configuration, final String queryComment) {
+        Task task = mongoClient -> {
+            com.mongodb.client.MongoDatabase adminDatabase = mongoClient.getDatabase("admin");
+            Document currentOperations = adminDatabase.runCommand(new Document("currentOp", 1)
+                    .append("$or", Arrays.asList(
+                            new Document("command.comment", queryComment),
+                            new Document("originatingCommand.comment", queryComment))));
+
+            for (Document operation : (List<Document>) currentOperations.get("inprog", List.class)) {
+                adminDatabase.runCommand(new Document("killOp", 1).append("op", operation.get("opid")));
+            }
+        };
+
+        executeTask(configuration, task);
+    }
+
+    public List<Document> fetchNextBatch(MongoCollectionResult mongoCollectionResult) {
+        try {
+            return mongoCollectionResult.fetchNextBatch();
+        } catch (MongoException mongoEx) {
+            mongoCollectionResult.close();
+            throw new ConfigurationException(mongoEx);
+        }
+    }
+
+    /**
+     * Uses the collection metadata when there is no filter, otherwise counts the matching documents within maxTime.
+     * The count is tagged with the comment, so that {@link #killQuery} can stop it.
+     */
+    public long countDocuments(ServerConfiguration configuration, final MongoCollection mongoCollection, final Document filter,
+                               final long maxTimeInMillis, @Nullable final String queryComment) {
+        TaskWithReturnedObject<Long> task = mongoClient -> {
+            MongoDatabase mongoDatabase = mongoCollection.getParentDatabase();
+            com.mongodb.client.MongoDatabase database = mongoClient.getDatabase(mongoDatabase.getName());
+            com.mongodb.client.MongoCollection<Document> collection = database.getCollection(mongoCollection.getName());
+
+            if (filter == null || filter.isEmpty()) {
+                return collection.estimatedDocumentCount(
+                        new EstimatedDocumentCountOptions().maxTime(maxTimeInMillis, TimeUnit.MILLISECONDS));
             }
 
-            return find(mongoQueryOptions, mongoCollectionResult, collection);
+            // same pipeline as countDocuments, which does not take a comment
+            AggregateIterable<Document> count = collection.aggregate(Arrays.asList(
+                    new Document("$match", filter),
+                    new Document("$group", new Document("_id", 1).append("n", new Document("$sum", 1)))))
+                    .maxTime(maxTimeInMillis, TimeUnit.MILLISECONDS);
+            if (queryComment != null) {
+                count.comment(queryComment);
+            }
+            Document result = count.first();
+            return result == null ? 0L : ((Number) result.get("n")).longValue();
         };
 
         return executeTask(configuration, task);
@@ -202,6 +313,59 @@ public class MongoManager {
         return executeTask(configuration, task);
     }
 
+    /**
+     * Runs collStats on every collection of the database, a few at a time, through the client of the server.
+     * Views, which have no stats, are left out.
+     */
+    public List<MongoCollectionStats> getCollectionsStats(ServerConfiguration configuration, final MongoDatabase mongoDatabase) {
+        TaskWithReturnedObject<List<MongoCollectionStats>> task = mongoClient -> {
+            com.mongodb.client.MongoDatabase database = mongoClient.getDatabase(mongoDatabase.getName());
+            List<String> collectionNames = database.listCollectionNames().into(new ArrayList<>());
+            if (collectionNames.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_PARALLEL_STATS_REQUESTS, collectionNames.size()));
+            try {
+                List<Future<MongoCollectionStats>> collectionsStats = new ArrayList<>();
+                for (String collectionName : collectionNames) {
+                    collectionsStats.add(executor.submit(() -> getCollectionStats(database, collectionName)));
+                }
+
+                List<MongoCollectionStats> mongoCollectionsStats = new ArrayList<>();
+                for (Future<MongoCollectionStats> collectionStats : collectionsStats) {
+                    MongoCollectionStats mongoCollectionStats = collectionStats.get();
+                    if (mongoCollectionStats != null) {
+                        mongoCollectionsStats.add(mongoCollectionStats);
+                    }
+                }
+                return mongoCollectionsStats;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ConfigurationException(ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw new ConfigurationException(ex);
+            } finally {
+                executor.shutdownNow();
+            }
+        };
+
+        return executeTask(configuration, task);
+    }
+
+    private MongoCollectionStats getCollectionStats(com.mongodb.client.MongoDatabase database, String collectionName) {
+        try {
+            return new MongoCollectionStats(collectionName,
+                    adaptToCollectionInfos(database.runCommand(new Document("collStats", collectionName))));
+        } catch (MongoCommandException ex) {
+            // e.g. a view
+            return null;
+        }
+    }
+
     private List<StatInfoEntry> adaptToCollectionInfos(Document collectionStatsDocument) {
         List<StatInfoEntry> collectionInfoEntries = new ArrayList<>();
 
@@ -240,16 +404,21 @@ public class MongoManager {
     }
 
     private <T> T executeTask(ServerConfiguration configuration, TaskWithReturnedObject<T> perform) {
-        if (SshTunnelingConfiguration.isEmpty(configuration.getSshTunnelingConfiguration())) {
-            return execute(configuration, perform);
-        } else {
-            try (SshConnection ignored = SshConnection.create(configuration)) {
-                return execute(configuration, perform);
-            }
+        if (!SshTunnelingConfiguration.isEmpty(configuration.getSshTunnelingConfiguration())) {
+            sshTunnelManager.openTunnel(configuration);
         }
+        return execute(configuration, perform);
     }
 
     private <T> T execute(ServerConfiguration configuration, TaskWithReturnedObject<T> perform) {
+        try {
+            return perform.run(clientRegistry.getClient(configuration));
+        } catch (MongoException mongoEx) {
+            throw new ConfigurationException(mongoEx);
+        }
+    }
+
+    private <T> T executeWithNewClient(ServerConfiguration configuration, TaskWithReturnedObject<T> perform) {
         try (MongoClient mongo = createMongoClient(configuration)) {
             return perform.run(mongo);
         } catch (MongoException mongoEx) {
@@ -258,34 +427,48 @@ public class MongoManager {
     }
 
     private void executeTask(ServerConfiguration configuration, Task perform) {
-        if (SshTunnelingConfiguration.isEmpty(configuration.getSshTunnelingConfiguration())) {
-            execute(configuration, perform);
-        } else {
-            try (SshConnection ignored = SshConnection.create(configuration)) {
-                execute(configuration, perform);
-            }
+        executeTask(configuration, (TaskWithReturnedObject<Void>) mongoClient -> {
+            perform.run(mongoClient);
+            return null;
+        });
+    }
+
+    private static long getMaxTimeInMillis(ServerConfiguration configuration, MongoQueryOptions mongoQueryOptions) {
+        if (mongoQueryOptions.getMaxTimeInMillis() > 0) {
+            return mongoQueryOptions.getMaxTimeInMillis();
         }
+        Integer defaultMaxTimeInMillis = configuration.getDefaultMaxTimeInMillis();
+        return defaultMaxTimeInMillis == null ? 0 : defaultMaxTimeInMillis;
     }
 
-    private void execute(ServerConfiguration configuration, Task task) {
-        try (MongoClient mongoClient = createMongoClient(configuration)) {
-            task.run(mongoClient);
-        } catch (MongoException ex) {
-            throw new ConfigurationException(ex);
+    private MongoCollectionResult aggregate(MongoQueryOptions mongoQueryOptions, long maxTimeInMillis, MongoCollectionResult mongoCollectionResult, com.mongodb.client.MongoCollection<Document> collection) {
+        AggregateIterable<Document> aggregate = collection.aggregate(mongoQueryOptions.getAggregatePipeline())
+                .allowDiskUse(mongoQueryOptions.isAllowDiskUse())
+                .batchSize(mongoQueryOptions.getBatchSize());
+        if (maxTimeInMillis > 0) {
+            aggregate.maxTime(maxTimeInMillis, TimeUnit.MILLISECONDS);
+        }
+        if (mongoQueryOptions.getComment() != null) {
+            aggregate.comment(mongoQueryOptions.getComment());
         }
+
+        return fetchFirstBatch(mongoQueryOptions, mongoCollectionResult, aggregate);
     }
 
-    private MongoCollectionResult aggregate(MongoQueryOptions mongoQueryOptions, MongoCollectionResult mongoCollectionResult, com.mongodb.client.MongoCollection<Document> collection) {
-        AggregateIterable aggregate = collection.aggregate(mongoQueryOptions.getOperations());
-        int index = 0;
-        Iterator iterator = aggregate.iterator();
-        while (iterator.hasNext() && index < mongoQueryOptions.getResultLimit()) {
-            mongoCollectionResult.add((Document) iterator.next());
+    private MongoCollectionResult find(MongoQueryOptions mongoQueryOptions, long maxTimeInMillis, final MongoCollectionResult mongoCollectionResult, com.mongodb.client.MongoCollection<Document> collection) {
+        FindIterable<Document> cursor = createFindIterable(mongoQueryOptions, collection);
+        cursor.batchSize(mongoQueryOptions.getBatchSize());
+        if (maxTimeInMillis > 0) {
+            cursor.maxTime(maxTimeInMillis, TimeUnit.MILLISECONDS);
         }
-        return mongoCollectionResult;
+        if (mongoQueryOptions.getComment() != null) {
+            cursor.comment(mongoQueryOptions.getComment());
+        }
+
+        return fetchFirstBatch(mongoQueryOptions, mongoCollectionResult, cursor);
     }
 
-    private MongoCollectionResult find(MongoQueryOptions mongoQueryOptions, final MongoCollectionResult mongoCollectionResult, com.mongodb.client.MongoCollection<Document> collection) {
+    private static FindIterable<Document> createFindIterable(MongoQueryOptions mongoQueryOptions, com.mongodb.client.MongoCollection<Document> collection) {
         Document filter = mongoQueryOptions.getFilter();
         Document projection = mongoQueryOptions.getProjection();
         Document sort = mongoQueryOptions.getSort();
@@ -299,12 +482,29 @@ public class MongoManager {
             cursor.sort(sort);
         }
 
+        int skip = mongoQueryOptions.getSkip();
+        if (skip > 0) {
+            cursor.skip(skip);
+        }
+
         int resultLimit = mongoQueryOptions.getResultLimit();
         if (resultLimit > 0) {
             cursor.limit(resultLimit);
         }
+        return cursor;
+    }
 
-        cursor.forEach((Block<Document>) mongoCollectionResult::add);
+    /**
+     * Only the first batch is read here, the others are fetched on demand with fetchNextBatch.
+     */
+    private static MongoCollectionResult fetchFirstBatch(MongoQueryOptions mongoQueryOptions, MongoCollectionResult mongoCollectionResult, MongoIterable<Document> documents) {
+        mongoCollectionResult.setCursor(documents.iterator(), mongoQueryOptions.getBatchSize());
+        try {
+            mongoCollectionResult.addAll(mongoCollectionResult.fetchNextBatch());
+        } catch (RuntimeException ex) {
+            mongoCollectionResult.close();
+            throw ex;
+        }
 
         return mongoCollectionResult;
     }
@@ -316,20 +516,22 @@ public class MongoManager {
         }
 
         List<ServerAddress> serverAddresses = new LinkedList<>();
-        if (SshTunnelingConfiguration.isEmpty(configuration.getSshTunnelingConfiguration())) {
-            for (String serverUrl : serverUrls) {
-                ServerConfiguration.HostAndPort hostAndPort = ServerConfiguration.extractHostAndPort(serverUrl);
-                serverAddresses.add(new ServerAddress(hostAndPort.host, hostAndPort.port));
-            }
-        } else {
-            serverAddresses.add(new ServerAddress(DEFAULT_TUNNEL_LOCAL_HOST, DEFAULT_TUNNEL_LOCAL_PORT));
+        for (String serverUrl : serverUrls) {
+            ServerConfiguration.HostAndPort hostAndPort = ServerConfiguration.extractHostAndPort(serverUrl);
+            serverAddresses.add(new ServerAddress(hostAndPort.host, hostAndPort.port));
         }
 
-        MongoClientOptions options = MongoClientOptions.builder()
+        MongoClientOptions.Builder optionsBuilder = MongoClientOptions.builder()
                 .sslEnabled(configuration.isSslConnection())
                 .readPreference(configuration.getReadPreference())
-                .codecRegistry(MongoClient.getDefaultCodecRegistry())
-                .build();
+                .codecRegistry(MongoClient.getDefaultCodecRegistry());
+
+        if (!SshTunnelingConfiguration.isEmpty(configuration.getSshTunnelingConfiguration())) {
+            optionsBuilder.streamFactoryFactory(
+                    new SshTunnelStreamFactoryFactory(sshTunnelManager.openTunnel(configuration)));
+        }
+
+        MongoClientOptions options = optionsBuilder.build();
 
         if (StringUtils.isEmpty(configuration.getUsername())) {
             return new MongoClient(serverAddresses, options);
@@ -366,20 +568,287 @@ public class MongoManager {
         return StringUtils.isEmpty(authenticationDatabase) ? "admin" : authenticationDatabase;
     }
 
-    public void importData(ServerConfiguration configuration, MongoCollection mongoCollection, List<Document> mongoDocuments, boolean replaceAllDocuments) {
-        Task task = mongoClient -> {
+    /**
+     * Writes the documents in batches as they are read, so that only the batches being written are held in memory.
+     * Documents are inserted, or upserted on the key of the options when there is one.
+     *
+     * @return the counts of the written documents
+     */
+    public MongoImportResult importData(ServerConfiguration configuration, MongoCollection mongoCollection, JsonDocumentReader documentReader,
+                                        MongoImportOptions importOptions, ProgressIndicator indicator) {
+        TaskWithReturnedObject<MongoImportResult> task = mongoClient -> {
             MongoDatabase mongoDatabase = mongoCollection.getParentDatabase();
             com.mongodb.client.MongoDatabase database = mongoClient.getDatabase(mongoDatabase.getName());
             com.mongodb.client.MongoCollection<Document> collection = database.getCollection(mongoCollection.getName());
 
-            if (replaceAllDocuments) {
-                collection.deleteMany(EMPTY_DOC);
+            DocumentRateLimiter rateLimiter = new DocumentRateLimiter(importOptions.getMaxDocumentsPerSecond());
+            if (!importOptions.isReplaceAllDocuments()) {
+                return writeDocuments(collection, documentReader, importOptions, rateLimiter, indicator);
+            }
+            if (importOptions.getReplaceAllMode() == ReplaceAllMode.CHUNKED_DELETE) {
+                deleteAllDocuments(collection, importOptions.getBatchSize(), rateLimiter, indicator);
+                return writeDocuments(collection, documentReader, importOptions, rateLimiter, indicator);
             }
+            return replaceThroughTemporaryCollection(database, collection, documentReader, importOptions, rateLimiter, indicator);
+        };
 
-            collection.insertMany(mongoDocuments);
+        return executeTask(configuration, task);
+    }
+
+    /**
+     * Streams the documents of the query, or of the whole collection when there is none, to the writer.
+     *
+     * @return the number of exported documents
+     */
+    public long exportData(ServerConfiguration configuration, MongoCollection mongoCollection, @Nullable MongoQueryOptions queryOptions,
+                           MongoExportOptions exportOptions, DocumentExportWriter documentWriter, ProgressIndicator indicator) {
+        TaskWithReturnedObject<Long> task = mongoClient -> {
+            MongoDatabase mongoDatabase = mongoCollection.getParentDatabase();
+            com.mongodb.client.MongoCollection<Document> collection = mongoClient.getDatabase(mongoDatabase.getName())
+                    .getCollection(mongoCollection.getName());
+
+            MongoIterable<Document> documents;
+            long expectedDocuments = 0;
+            if (queryOptions == null) {
+                documents = collection.find().batchSize(exportOptions.getBatchSize());
+                expectedDocuments = collection.estimatedDocumentCount();
+            } else if (queryOptions.isAggregate()) {
+                // the raw stages, without the $limit stage of the row limit
+                AggregateIterable<Document> aggregate = collection.aggregate(queryOptions.getOperations())
+                        .allowDiskUse(queryOptions.isAllowDiskUse())
+                        .batchSize(exportOptions.getBatchSize());
+                if (queryOptions.getMaxTimeInMillis() > 0) {
+                    aggregate.maxTime(queryOptions.getMaxTimeInMillis(), TimeUnit.MILLISECONDS);
+                }
+                if (queryOptions.getComment() != null) {
+                    aggregate.comment(queryOptions.getComment());
+                }
+                documents = aggregate;
+            } else {
+                // the row limit and the page only bound what the result view shows, the export holds the whole result
+                FindIterable<Document> find = collection.find(queryOptions.getFilter()).batchSize(exportOptions.getBatchSize());
+                if (!MongoQueryOptions.EMPTY_DOCUMENT.equals(queryOptions.getProjection())) {
+                    find.projection(queryOptions.getProjection());
+                }
+                if (!MongoQueryOptions.EMPTY_DOCUMENT.equals(queryOptions.getSort())) {
+                    find.sort(queryOptions.getSort());
+                }
+                if (queryOptions.getMaxTimeInMillis() > 0) {
+                    find.maxTime(queryOptions.getMaxTimeInMillis(), TimeUnit.MILLISECONDS);
+                }
+                if (queryOptions.getComment() != null) {
+                    find.comment(queryOptions.getComment());
+                }
+                documents = find;
+            }
+            indicator.setIndeterminate(expectedDocuments == 0);
+
+            long startTime = System.nanoTime();
+            long exportedDocuments = 0;
+            try (MongoCursor<Document> cursor = documents.iterator()) {
+                while (cursor.hasNext()) {
+                    documentWriter.write(cursor.next());
+                    exportedDocuments++;
+                    if (exportedDocuments % exportOptions.getBatchSize() == 0) {
+                        indicator.checkCanceled();
+                        reportExportProgress(indicator, exportedDocuments, expectedDocuments, startTime);
+                    }
+                }
+            }
+            return exportedDocuments;
         };
 
-        executeTask(configuration, task);
+        return executeTask(configuration, task);
+    }
+
+    private static void reportExportProgress(ProgressIndicator indicator, long exportedDocuments, long expectedDocuments, long startTime) {
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        if (expectedDocuments > 0) {
+            indicator.setFraction(Math.min(1, (double) exportedDocuments / expectedDocuments));
+        }
+        indicator.setText2(String.format("%,d documents exported (%,d docs/s)", exportedDocuments, exportedDocuments * 1000 / elapsedMillis));
+    }
+
+    private static MongoImportResult writeDocuments(com.mongodb.client.MongoCollection<Document> collection, JsonDocumentReader documentReader,
+                                                    MongoImportOptions importOptions, DocumentRateLimiter rateLimiter, ProgressIndicator indicator) {
+        com.mongodb.client.MongoCollection<Document> importCollection = collection.withWriteConcern(getImportWriteConcern(collection, importOptions));
+        MongoImportResult importResult = new MongoImportResult(StringUtils.trimToNull(importOptions.getUpsertKey()));
+        Consumer<List<Document>> documentsWriter = StringUtils.isBlank(importOptions.getUpsertKey()) ?
+                createInsertWriter(importCollection, importOptions, importResult) :
+                createUpsertWriter(importCollection, importOptions, importResult);
+
+        long startTime = System.nanoTime();
+        try (ParallelBatchWriter batchWriter = new ParallelBatchWriter(importOptions.getWriterCount(), documents -> {
+            rateLimiter.acquire(documents.size());
+            documentsWriter.accept(documents);
+        })) {
+            List<Document> batch = new ArrayList<>(importOptions.getBatchSize());
+            while (documentReader.hasNext()) {
+                batch.add(documentReader.next());
+                if (batch.size() >= importOptions.getBatchSize() || !documentReader.hasNext()) {
+                    indicator.checkCanceled();
+                    batchWriter.write(batch);
+                    batch = new ArrayList<>(importOptions.getBatchSize());
+
+                    reportImportProgress(indicator, importResult, batchWriter.getWrittenDocuments(), startTime, documentReader.getReadFraction());
+                }
+            }
+            batchWriter.flush();
+            return importResult;
+        }
+    }
+
+    /**
+     * Deletes the documents by chunks of ids rather than with a single <code>deleteMany</code>, so that the oplog and
+     * the secondaries can keep up.
+     */
+    private static void deleteAllDocuments(com.mongodb.client.MongoCollection<Document> collection, int chunkSize,
+                                           DocumentRateLimiter rateLimiter, ProgressIndicator indicator) {
+        long deletedDocuments = 0;
+        while (true) {
+            indicator.checkCanceled();
+            List<Object> ids = collection.find()
+                    .projection(new Document("_id", 1))
+                    .limit(chunkSize)
+                    .map(document -> document.get("_id"))
+                    .into(new ArrayList<>());
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            rateLimiter.acquire(ids.size());
+            deletedDocuments += collection.deleteMany(new Document("_id", new Document("$in", ids))).getDeletedCount();
+            indicator.setText2(String.format("%,d documents deleted", deletedDocuments));
+        }
+    }
+
+    /**
+     * Loads the documents into a new collection with the options and the indexes of the target, then renames it over
+     * the target. The target is left untouched if the import fails or is cancelled.
+     */
+    private static MongoImportResult replaceThroughTemporaryCollection(com.mongodb.client.MongoDatabase database,
+                                                                       com.mongodb.client.MongoCollection<Document> collection,
+                                                                       JsonDocumentReader documentReader, MongoImportOptions importOptions,
+                                                                       DocumentRateLimiter rateLimiter, ProgressIndicator indicator) {
+        String collectionName = collection.getNamespace().getCollectionName();
+        String temporaryName = collectionName + "_import_" + System.currentTimeMillis();
+
+        Document createCommand = new Document("create", temporaryName);
+        Document collectionInfo = database.listCollections().filter(new Document("name", collectionName)).first();
+        if (collectionInfo != null && collectionInfo.get("options") instanceof Document) {
+            createCommand.putAll(collectionInfo.get("options", Document.class));
+        }
+        database.runCommand(createCommand);
+
+        com.mongodb.client.MongoCollection<Document> temporaryCollection = database.getCollection(temporaryName);
+        boolean renamed = false;
+        try {
+            MongoImportResult importResult = writeDocuments(temporaryCollection, documentReader, importOptions, rateLimiter, indicator);
+
+            // indexes are built once the documents are loaded, which is faster than maintaining them on each insert
+            List<Document> indexes = new ArrayList<>();
+            for (Document index : collection.listIndexes()) {
+                if (!"_id_".equals(index.getString("name"))) {
+                    index.remove("ns");
+                    indexes.add(index);
+                }
+            }
+            if (!indexes.isEmpty()) {
+                indicator.setText2("Building indexes");
+                database.runCommand(new Document("createIndexes", temporaryName).append("indexes", indexes));
+            }
+
+            indicator.checkCanceled();
+            temporaryCollection.renameCollection(collection.getNamespace(), new RenameCollectionOptions().dropTarget(true));
+            renamed = true;
+            return importResult;
+        } finally {
+            if (!renamed) {
+                temporaryCollection.drop();
+            }
+        }
+    }
+
+    private static Consumer<List<Document>> createInsertWriter(com.mongodb.client.MongoCollection<Document> collection,
+                                                               MongoImportOptions importOptions, MongoImportResult importResult) {
+        InsertManyOptions insertManyOptions = new InsertManyOptions()
+                .ordered(importOptions.isOrdered())
+                .bypassDocumentValidation(importOptions.isBypassDocumentValidation());
+        boolean acknowledged = collection.getWriteConcern().isAcknowledged();
+        return documents -> {
+            collection.insertMany(documents, insertManyOptions);
+            if (acknowledged) {
+                importResult.addBatch(documents.size(), 0, 0, 0);
+            } else {
+                importResult.addUnacknowledgedBatch(documents.size());
+            }
+        };
+    }
+
+    private static Consumer<List<Document>> createUpsertWriter(com.mongodb.client.MongoCollection<Document> collection,
+                                                               MongoImportOptions importOptions, MongoImportResult importResult) {
+        BulkWriteOptions bulkWriteOptions = new BulkWriteOptions()
+                .ordered(importOptions.isOrdered())
+                .bypassDocumentValidation(importOptions.isBypassDocumentValidation());
+        String upsertKey = importOptions.getUpsertKey().trim();
+        return documents -> {
+            List<WriteModel<Document>> writeModels = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                writeModels.add(createUpsertModel(document, upsertKey));
+            }
+            BulkWriteResult writeResult = collection.bulkWrite(writeModels, bulkWriteOptions);
+            if (!writeResult.wasAcknowledged()) {
+                // the counts of an unacknowledged write are not known
+                importResult.addUnacknowledgedBatch(documents.size());
+                return;
+            }
+            importResult.addBatch(writeResult.getInsertedCount(), writeResult.getUpserts().size(),
+                    writeResult.getMatchedCount(), writeResult.getModifiedCount());
+        };
+    }
+
+    /**
+     * A document is replaced as a whole when matched on its <code>_id</code>. On any other key, its fields are set on
+     * the matched document instead, since the <code>_id</code> of the latter cannot change.
+     */
+    static WriteModel<Document> createUpsertModel(Document document, String upsertKey) {
+        if (!document.containsKey(upsertKey)) {
+            return new InsertOneModel<>(document);
+        }
+        Document filter = new Document(upsertKey, document.get(upsertKey));
+        if ("_id".equals(upsertKey)) {
+            return new ReplaceOneModel<>(filter, document, new ReplaceOptions().upsert(true));
+        }
+
+        Document fields = new Document(document);
+        Object id = fields.remove("_id");
+        Document update = new Document("$set", fields);
+        if (id != null) {
+            update.append("$setOnInsert", new Document("_id", id));
+        }
+        return new UpdateOneModel<>(filter, update, new UpdateOptions().upsert(true));
+    }
+
+    private static WriteConcern getImportWriteConcern(com.mongodb.client.MongoCollection<Document> collection, MongoImportOptions importOptions) {
+        WriteConcern writeConcern = collection.getWriteConcern();
+        String w = StringUtils.trimToNull(importOptions.getWriteConcern());
+        if (w != null) {
+            writeConcern = StringUtils.isNumeric(w) ? writeConcern.withW(Integer.parseInt(w)) : writeConcern.withW(w);
+        }
+        if (importOptions.isJournal()) {
+            if (!writeConcern.isAcknowledged()) {
+                throw new ConfigurationException("Waiting for the journal needs an acknowledged write concern (w > 0)");
+            }
+            writeConcern = writeConcern.withJournal(true);
+        }
+        return writeConcern;
+    }
+
+    private static void reportImportProgress(ProgressIndicator indicator, MongoImportResult importResult, long writtenDocuments,
+                                             long startTime, double readFraction) {
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        indicator.setFraction(readFraction);
+        indicator.setText2(String.format("%s (%,d docs/s)", importResult.getSummary(), writtenDocuments * 1000 / elapsedMillis));
     }
 
     private interface Task {
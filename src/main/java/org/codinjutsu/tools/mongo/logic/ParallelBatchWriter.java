@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.logic;
+
+import org.bson.Document;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Writes batches of documents on a few threads while the caller keeps reading the next ones.
+ * <p>
+ * No more than twice as many batches as writers are held at once, so the memory used does not depend on the size
+ * of the import. The first failure of a writer is rethrown to the caller on its next call.
+ * <p>
+ * Closing the writer skips the batches that are not started yet and waits for the running ones, so that no write
+ * reaches the collection once the caller has moved on (for instance to drop it).
+ */
+class ParallelBatchWriter implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Semaphore batchPermits;
+    private final int maxPendingBatches;
+    private final Consumer<List<Document>> batchWriter;
+
+    private final AtomicLong writtenDocuments = new AtomicLong();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private volatile boolean closed = false;
+
+    ParallelBatchWriter(int writerCount, Consumer<List<Document>> batchWriter) {
+        this.executor = Executors.newFixedThreadPool(writerCount);
+        this.maxPendingBatches = 2 * writerCount;
+        this.batchPermits = new Semaphore(maxPendingBatches);
+        this.batchWriter = batchWriter;
+    }
+
+    /**
+     * Blocks while too many batches are waiting to be written.
+     */
+    void write(List<Document> batch) {
+        rethrowFailure();
+        acquire(1);
+        executor.execute(() -> {
+            try {
+                if (!closed && failure.get() == null) {
+                    batchWriter.accept(batch);
+                    writtenDocuments.addAndGet(batch.size());
+                }
+            } catch (RuntimeException ex) {
+                failure.compareAndSet(null, ex);
+            } finally {
+                batchPermits.release();
+            }
+        });
+    }
+
+    /**
+     * Waits for all the batches to be written.
+     */
+    void flush() {
+        acquire(maxPendingBatches);
+        batchPermits.release(maxPendingBatches);
+        rethrowFailure();
+    }
+
+    long getWrittenDocuments() {
+        return writtenDocuments.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        // the running writes are not interrupted, the server would go on with them anyway
+        executor.shutdown();
+        boolean interrupted = false;
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acquire(int permits) {
+        try {
+            batchPermits.acquire(permits);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConfigurationException(ex);
+        }
+    }
+
+    private void rethrowFailure() {
+        RuntimeException writerFailure = failure.get();
+        if (writerFailure != null) {
+            throw writerFailure;
+        }
+    }
+}
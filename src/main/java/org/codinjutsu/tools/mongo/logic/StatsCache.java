@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.logic;
+
+import org.codinjutsu.tools.mongo.model.StatInfoEntry;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the last stats fetched for each namespace, so that they can be shown right away when the same database
+ * or collection is selected again. Expired stats are still returned, the caller decides whether to refresh them.
+ * <p>
+ * The least recently used namespaces are evicted once the cache is full.
+ */
+public class StatsCache {
+
+    private final Map<String, Entry> entriesByNamespace;
+    private final long timeToLiveInMillis;
+    private final LongSupplier clock;
+
+    public StatsCache(int maxSize, long timeToLiveInMillis) {
+        this(maxSize, timeToLiveInMillis, System::currentTimeMillis);
+    }
+
+    StatsCache(final int maxSize, long timeToLiveInMillis, LongSupplier clock) {
+        this.timeToLiveInMillis = timeToLiveInMillis;
+        this.clock = clock;
+        this.entriesByNamespace = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized Entry get(String namespace) {
+        return entriesByNamespace.get(namespace);
+    }
+
+    public synchronized void put(String namespace, List<StatInfoEntry> stats) {
+        entriesByNamespace.put(namespace, new Entry(stats, clock.getAsLong() + timeToLiveInMillis));
+    }
+
+    public synchronized void invalidate(String namespacePrefix) {
+        entriesByNamespace.keySet().removeIf(namespace -> namespace.startsWith(namespacePrefix));
+    }
+
+    public class Entry {
+
+        private final List<StatInfoEntry> stats;
+        private final long expirationTime;
+
+        private Entry(List<StatInfoEntry> stats, long expirationTime) {
+            this.stats = stats;
+            this.expirationTime = expirationTime;
+        }
+
+        public List<StatInfoEntry> getStats() {
+            return stats;
+        }
+
+        public boolean isExpired() {
+            return clock.getAsLong() >= expirationTime;
+        }
+    }
+}
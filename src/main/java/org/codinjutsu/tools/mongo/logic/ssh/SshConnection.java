@@ -24,23 +24,44 @@ import org.codinjutsu.tools.mongo.SshTunnelingConfiguration;
 import org.codinjutsu.tools.mongo.logic.ConfigurationException;
 
 import java.io.Closeable;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 
 public class SshConnection implements Closeable {
 
-    private static final int DEFAULT_TUNNEL_LOCAL_PORT = 9080;
+    private static final String TUNNEL_LOCAL_HOST = "127.0.0.1";
+    private static final int EPHEMERAL_LOCAL_PORT = 0;
 
-    private final List<Session> sshSessions = new LinkedList<>();
+    private static final int KEEP_ALIVE_INTERVAL_IN_MILLIS = 30000;
+    private static final int KEEP_ALIVE_MAX_MISSED = 3;
+
+    private final Session sshSession;
+    private final Map<String, ServerConfiguration.HostAndPort> localAddressesByServerUrl = new LinkedHashMap<>();
+
+    private final List<String> serverUrls;
+    private final SshTunnelingConfiguration sshTunnelingConfiguration;
 
     public static SshConnection create(ServerConfiguration serverConfiguration) {
         return new SshConnection(serverConfiguration.getServerUrls(), serverConfiguration.getSshTunnelingConfiguration());
     }
 
     public void close() {
-        for (Session sshSession : sshSessions) {
-            sshSession.disconnect();
-        }
+        sshSession.disconnect();
+    }
+
+    /**
+     * @return the local end of the forward of each server url, keyed by the lower-cased server url
+     */
+    public Map<String, ServerConfiguration.HostAndPort> getLocalAddressesByServerUrl() {
+        return localAddressesByServerUrl;
+    }
+
+    public boolean isConnected() {
+        return sshSession.isConnected();
+    }
+
+    public boolean isCreatedFrom(ServerConfiguration serverConfiguration) {
+        return serverUrls.equals(serverConfiguration.getServerUrls())
+                && sshTunnelingConfiguration.equals(serverConfiguration.getSshTunnelingConfiguration());
     }
 
     private SshConnection(List<String> serverUrls, SshTunnelingConfiguration sshTunnelingConfiguration) {
@@ -48,15 +69,28 @@ public class SshConnection implements Closeable {
             throw new IllegalArgumentException("SSH Configuration should be set");
         }
 
-        int localPort = DEFAULT_TUNNEL_LOCAL_PORT;
-        for (String serverUrl : serverUrls) {
-            Session session = createSshSession(sshTunnelingConfiguration, ServerConfiguration.extractHostAndPort(serverUrl), localPort++);
-            sshSessions.add(session);
+        this.serverUrls = new LinkedList<>(serverUrls);
+        this.sshTunnelingConfiguration = new SshTunnelingConfiguration(
+                sshTunnelingConfiguration.getProxyUrl(),
+                sshTunnelingConfiguration.getProxyUser(),
+                sshTunnelingConfiguration.getAuthenticationMethod(),
+                sshTunnelingConfiguration.getPrivateKeyPath(),
+                sshTunnelingConfiguration.getProxyPassword());
+
+        sshSession = createSshSession(sshTunnelingConfiguration);
+        try {
+            for (String serverUrl : serverUrls) {
+                ServerConfiguration.HostAndPort hostAndPort = ServerConfiguration.extractHostAndPort(serverUrl);
+                int localPort = sshSession.setPortForwardingL(TUNNEL_LOCAL_HOST, EPHEMERAL_LOCAL_PORT, hostAndPort.host, hostAndPort.port);
+                localAddressesByServerUrl.put(serverUrl.toLowerCase(), new ServerConfiguration.HostAndPort(TUNNEL_LOCAL_HOST, localPort));
+            }
+        } catch (JSchException ex) {
+            close();
+            throw new ConfigurationException(ex);
         }
     }
 
-    private Session createSshSession(SshTunnelingConfiguration sshTunnelingConfiguration,
-                                     ServerConfiguration.HostAndPort hostAndPort, int localPort) {
+    private static Session createSshSession(SshTunnelingConfiguration sshTunnelingConfiguration) {
         try {
             JSch jsch = new JSch();
 
@@ -75,13 +109,11 @@ public class SshConnection implements Closeable {
             java.util.Properties config = new java.util.Properties();
             config.put("StrictHostKeyChecking", "no");
             session.setConfig(config);
+            session.setServerAliveInterval(KEEP_ALIVE_INTERVAL_IN_MILLIS);
+            session.setServerAliveCountMax(KEEP_ALIVE_MAX_MISSED);
 
             session.connect();
 
-            String remoteMongoHost = hostAndPort.host;
-            int remoteMongoPort = hostAndPort.port;
-            session.setPortForwardingL(localPort, remoteMongoHost, remoteMongoPort);
-
             return session;
 
         } catch (JSchException ex) {
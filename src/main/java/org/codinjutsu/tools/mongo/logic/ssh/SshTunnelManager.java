@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.logic.ssh;
+
+import org.codinjutsu.tools.mongo.ServerConfiguration;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the SSH tunnel of each server configuration open between operations.
+ * <p>
+ * Each tunnel is a single SSH session forwarding every server url to its own ephemeral local port, so several
+ * servers can be tunnelled at the same time.
+ * A dropped or outdated tunnel is transparently reopened on the next operation. The listener is told
+ * whenever a tunnel is closed so that the clients going through it can be discarded.
+ */
+public class SshTunnelManager {
+
+    private final Map<ServerConfiguration, SshConnection> connectionsByConfiguration = new IdentityHashMap<>();
+
+    private final Consumer<ServerConfiguration> tunnelClosedListener;
+
+    public SshTunnelManager(Consumer<ServerConfiguration> tunnelClosedListener) {
+        this.tunnelClosedListener = tunnelClosedListener;
+    }
+
+    /**
+     * @return the local end of the forward of each server url of the configuration
+     */
+    public Map<String, ServerConfiguration.HostAndPort> openTunnel(ServerConfiguration configuration) {
+        boolean reopened = false;
+        try {
+            synchronized (this) {
+                SshConnection sshConnection = connectionsByConfiguration.get(configuration);
+                if (sshConnection != null && sshConnection.isConnected() && sshConnection.isCreatedFrom(configuration)) {
+                    return sshConnection.getLocalAddressesByServerUrl();
+                }
+
+                if (sshConnection != null) {
+                    connectionsByConfiguration.remove(configuration);
+                    sshConnection.close();
+                    reopened = true;
+                }
+
+                sshConnection = SshConnection.create(configuration);
+                connectionsByConfiguration.put(configuration, sshConnection);
+                return sshConnection.getLocalAddressesByServerUrl();
+            }
+        } finally {
+            // the listener may need other locks, so it is called once this one is released
+            if (reopened) {
+                tunnelClosedListener.accept(configuration);
+            }
+        }
+    }
+
+    public void closeTunnel(ServerConfiguration configuration) {
+        SshConnection sshConnection;
+        synchronized (this) {
+            sshConnection = connectionsByConfiguration.remove(configuration);
+        }
+        if (sshConnection != null) {
+            sshConnection.close();
+            tunnelClosedListener.accept(configuration);
+        }
+    }
+
+    public void closeAll() {
+        List<ServerConfiguration> configurations;
+        synchronized (this) {
+            configurations = new ArrayList<>(connectionsByConfiguration.keySet());
+        }
+        for (ServerConfiguration configuration : configurations) {
+            closeTunnel(configuration);
+        }
+    }
+}
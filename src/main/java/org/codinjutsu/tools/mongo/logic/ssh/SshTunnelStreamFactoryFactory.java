@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.logic.ssh;
+
+import com.mongodb.MongoSocketException;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.*;
+import org.codinjutsu.tools.mongo.ServerConfiguration;
+
+import java.util.Map;
+
+/**
+ * Lets the driver keep working with the real addresses of the servers (including the replica set members it
+ * discovers) while the sockets are actually opened on the local end of the matching SSH forward.
+ * <p>
+ * A server without a forward is never reached directly, since it is usually only reachable through the SSH proxy.
+ */
+public class SshTunnelStreamFactoryFactory implements StreamFactoryFactory {
+
+    private final Map<String, ServerConfiguration.HostAndPort> localAddressesByServerUrl;
+
+    public SshTunnelStreamFactoryFactory(Map<String, ServerConfiguration.HostAndPort> localAddressesByServerUrl) {
+        this.localAddressesByServerUrl = localAddressesByServerUrl;
+    }
+
+    @Override
+    public StreamFactory create(SocketSettings socketSettings, SslSettings sslSettings) {
+        SocketStreamFactory socketStreamFactory = new SocketStreamFactory(socketSettings, sslSettings);
+        return serverAddress -> socketStreamFactory.create(toLocalAddress(serverAddress));
+    }
+
+    private ServerAddress toLocalAddress(ServerAddress serverAddress) {
+        String serverUrl = String.format("%s:%s", serverAddress.getHost(), serverAddress.getPort()).toLowerCase();
+        ServerConfiguration.HostAndPort localAddress = localAddressesByServerUrl.get(serverUrl);
+        if (localAddress == null) {
+            throw new MongoSocketException(String.format("No SSH tunnel is opened to %s, add it to the server urls of the configuration", serverUrl), serverAddress);
+        }
+        return new ServerAddress(localAddress.host, localAddress.port);
+    }
+}
@@ -16,15 +16,29 @@
 
 package org.codinjutsu.tools.mongo.model;
 
+import com.mongodb.client.MongoCursor;
 import org.bson.Document;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Documents fetched so far by a query. When the query was not fully read, the remaining documents
+ * stay on the server cursor and are fetched batch by batch on demand.
+ * <p>
+ * The documents are appended on the UI thread while the view may be prepared in background, so the list is copied
+ * on write: a background reader works on a consistent snapshot.
+ */
 public class MongoCollectionResult {
 
     private final String collectionName;
-    private final List<Document> mongoObjects = new LinkedList<>();
+    private final List<Document> mongoObjects = new CopyOnWriteArrayList<>();
+    private boolean page = false;
+
+    private volatile MongoCursor<Document> cursor;
+    private int batchSize = MongoQueryOptions.DEFAULT_BATCH_SIZE;
+    private String queryComment;
 
     public MongoCollectionResult(String collectionName) {
         this.collectionName = collectionName;
@@ -34,6 +48,10 @@ public class MongoCollectionResult {
         mongoObjects.add(document);
     }
 
+    public void addAll(List<Document> documents) {
+        mongoObjects.addAll(documents);
+    }
+
     public List<Document> getDocuments() {
         return mongoObjects;
     }
@@ -45,4 +63,59 @@ public class MongoCollectionResult {
     public int getTotalDocumentNumber() {
         return mongoObjects.size();
     }
+
+    /**
+     * @return true when the documents only hold the current page, already fetched with skip and limit
+     */
+    public boolean isPage() {
+        return page;
+    }
+
+    public void setPage(boolean page) {
+        this.page = page;
+    }
+
+    public String getQueryComment() {
+        return queryComment;
+    }
+
+    public void setQueryComment(String queryComment) {
+        this.queryComment = queryComment;
+    }
+
+    public synchronized void setCursor(MongoCursor<Document> cursor, int batchSize) {
+        close();
+        this.cursor = cursor;
+        this.batchSize = batchSize > 0 ? batchSize : MongoQueryOptions.DEFAULT_BATCH_SIZE;
+    }
+
+    public boolean hasMoreDocuments() {
+        return cursor != null;
+    }
+
+    /**
+     * Reads the next batch from the cursor, closing it once exhausted.
+     * The documents are not added to this result, so that the caller can do it from the UI thread.
+     */
+    public synchronized List<Document> fetchNextBatch() {
+        List<Document> batch = new ArrayList<>();
+        if (cursor == null) {
+            return batch;
+        }
+        while (batch.size() < batchSize && cursor.hasNext()) {
+            batch.add(cursor.next());
+        }
+        // hasNext would fetch the next batch right away while the server cursor is still open
+        if (cursor.getServerCursor() == null && !cursor.hasNext()) {
+            close();
+        }
+        return batch;
+    }
+
+    public synchronized void close() {
+        if (cursor != null) {
+            cursor.close();
+            cursor = null;
+        }
+    }
 }
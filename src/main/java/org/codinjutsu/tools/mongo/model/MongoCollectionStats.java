@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MongoCollectionStats {
+
+    private final String collectionName;
+    private final Map<String, StatInfoEntry> statInfosByKey = new LinkedHashMap<>();
+
+    public MongoCollectionStats(String collectionName, List<StatInfoEntry> statInfos) {
+        this.collectionName = collectionName;
+        for (StatInfoEntry statInfo : statInfos) {
+            statInfosByKey.put(statInfo.getKey(), statInfo);
+        }
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    public StatInfoEntry getStatInfo(CollectionStatInfoEnum statInfo) {
+        return statInfosByKey.get(statInfo.name());
+    }
+}
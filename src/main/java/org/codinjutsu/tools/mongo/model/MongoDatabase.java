@@ -16,6 +16,7 @@
 
 package org.codinjutsu.tools.mongo.model;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -25,6 +26,8 @@ public class MongoDatabase {
     private final MongoServer parentServer;
 
     private final SortedSet<MongoCollection> collections = new TreeSet<>();
+    private volatile boolean collectionsLoaded = false;
+    private volatile String collectionsLoadingError;
 
     public MongoDatabase(String name, MongoServer mongoServer) {
         this.name = name;
@@ -43,6 +46,31 @@ public class MongoDatabase {
         collections.add(mongoCollection);
     }
 
+    /**
+     * @return false until the collections are listed, which is only done when the database is browsed
+     */
+    public boolean isCollectionsLoaded() {
+        return collectionsLoaded;
+    }
+
+    public void setCollections(Collection<MongoCollection> mongoCollections) {
+        collections.clear();
+        collections.addAll(mongoCollections);
+        collectionsLoaded = true;
+        collectionsLoadingError = null;
+    }
+
+    /**
+     * @return the error of the last listing of the collections, or null. The collections stay not loaded so that they are listed again.
+     */
+    public String getCollectionsLoadingError() {
+        return collectionsLoadingError;
+    }
+
+    public void setCollectionsLoadingError(String collectionsLoadingError) {
+        this.collectionsLoadingError = collectionsLoadingError;
+    }
+
     public MongoServer getParentServer() {
         return parentServer;
     }
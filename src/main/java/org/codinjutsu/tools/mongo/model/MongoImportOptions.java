@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.model;
+
+public class MongoImportOptions {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private boolean replaceAllDocuments = false;
+    private ReplaceAllMode replaceAllMode = ReplaceAllMode.CHUNKED_DELETE;
+    private int maxDocumentsPerSecond = 0;
+    private String upsertKey;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int writerCount = 1;
+    private String writeConcern;
+    private boolean journal = false;
+    private boolean ordered = false;
+    private boolean bypassDocumentValidation = false;
+
+    public boolean isReplaceAllDocuments() {
+        return replaceAllDocuments;
+    }
+
+    public void setReplaceAllDocuments(boolean replaceAllDocuments) {
+        this.replaceAllDocuments = replaceAllDocuments;
+    }
+
+    public ReplaceAllMode getReplaceAllMode() {
+        return replaceAllMode;
+    }
+
+    public void setReplaceAllMode(ReplaceAllMode replaceAllMode) {
+        this.replaceAllMode = replaceAllMode;
+    }
+
+    /**
+     * @return the number of documents written or deleted per second not to exceed, 0 for no limit
+     */
+    public int getMaxDocumentsPerSecond() {
+        return maxDocumentsPerSecond;
+    }
+
+    public void setMaxDocumentsPerSecond(int maxDocumentsPerSecond) {
+        this.maxDocumentsPerSecond = maxDocumentsPerSecond;
+    }
+
+    /**
+     * @return the field matching each imported document with the one it replaces, null to only insert documents
+     */
+    public String getUpsertKey() {
+        return upsertKey;
+    }
+
+    public void setUpsertKey(String upsertKey) {
+        this.upsertKey = upsertKey;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getWriterCount() {
+        return writerCount;
+    }
+
+    public void setWriterCount(int writerCount) {
+        this.writerCount = writerCount;
+    }
+
+    /**
+     * @return the <code>w</code> option of the write concern (a number of members or a tag such as "majority"),
+     * null to keep the one of the client
+     */
+    public String getWriteConcern() {
+        return writeConcern;
+    }
+
+    public void setWriteConcern(String writeConcern) {
+        this.writeConcern = writeConcern;
+    }
+
+    public boolean isJournal() {
+        return journal;
+    }
+
+    public void setJournal(boolean journal) {
+        this.journal = journal;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public boolean isBypassDocumentValidation() {
+        return bypassDocumentValidation;
+    }
+
+    public void setBypassDocumentValidation(boolean bypassDocumentValidation) {
+        this.bypassDocumentValidation = bypassDocumentValidation;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.model;
+
+/**
+ * Counts of an import, updated by each written batch.
+ */
+public class MongoImportResult {
+
+    private final String upsertKey;
+
+    private long insertedCount;
+    private long upsertedCount;
+    private long matchedCount;
+    private long modifiedCount;
+    private long unacknowledgedCount;
+
+    /**
+     * @param upsertKey the key the documents are upserted on, null when they are only inserted
+     */
+    public MongoImportResult(String upsertKey) {
+        this.upsertKey = upsertKey;
+    }
+
+    public synchronized void addBatch(long insertedCount, long upsertedCount, long matchedCount, long modifiedCount) {
+        this.insertedCount += insertedCount;
+        this.upsertedCount += upsertedCount;
+        this.matchedCount += matchedCount;
+        this.modifiedCount += modifiedCount;
+    }
+
+    /**
+     * Counts the documents of a batch written without acknowledgement (w=0), for which the server reports nothing.
+     */
+    public synchronized void addUnacknowledgedBatch(long documentCount) {
+        this.unacknowledgedCount += documentCount;
+    }
+
+    public synchronized long getInsertedCount() {
+        return insertedCount;
+    }
+
+    public synchronized long getUpsertedCount() {
+        return upsertedCount;
+    }
+
+    public synchronized long getMatchedCount() {
+        return matchedCount;
+    }
+
+    public synchronized long getModifiedCount() {
+        return modifiedCount;
+    }
+
+    public synchronized long getUnacknowledgedCount() {
+        return unacknowledgedCount;
+    }
+
+    public synchronized String getSummary() {
+        if (unacknowledgedCount > 0) {
+            return String.format("%,d documents sent without acknowledgement", unacknowledgedCount);
+        }
+        if (upsertKey == null) {
+            return String.format("%,d documents imported", insertedCount);
+        }
+        // in an upsert import, only the documents without the key are inserted
+        return String.format("%,d documents upserted, %,d matched, %,d modified, %,d inserted without the %s field",
+                upsertedCount, matchedCount, modifiedCount, insertedCount, upsertKey);
+    }
+}
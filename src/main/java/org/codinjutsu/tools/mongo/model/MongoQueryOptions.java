@@ -22,15 +22,20 @@ import com.mongodb.util.JSON;
 import org.apache.commons.lang.StringUtils;
 import org.bson.Document;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 
 public class MongoQueryOptions {
 
     public static final int NO_LIMIT = 0;
     public static final int DEFAULT_RESULT_LIMIT = 300;
+    public static final int DEFAULT_BATCH_SIZE = 100;
 
     public static final Document EMPTY_DOCUMENT = new Document();
+
+    private static final String ID_KEY = "_id";
+    private static final int ASCENDING = 1;
+    private static final int DESCENDING = -1;
+
     private final List<BasicDBObject> operations = new LinkedList<>();
 
     private Document filter = EMPTY_DOCUMENT;
@@ -38,6 +43,12 @@ public class MongoQueryOptions {
     private Document sort = EMPTY_DOCUMENT;
 
     private int resultLimit = DEFAULT_RESULT_LIMIT;
+    private int skip = 0;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private boolean allowDiskUse = false;
+    private long maxTimeInMillis = 0;
+    private String comment;
 
     public boolean isAggregate() {
         return !operations.isEmpty();
@@ -56,6 +67,26 @@ public class MongoQueryOptions {
         }
     }
 
+    /**
+     * @return the aggregation stages followed by a $limit stage when a row limit is set, so that the server
+     * stops the pipeline as soon as enough documents are produced
+     */
+    public List<BasicDBObject> getAggregatePipeline() {
+        List<BasicDBObject> pipeline = new LinkedList<>(operations);
+        if (resultLimit > 0 && !endsWithOutputStage()) {
+            pipeline.add(new BasicDBObject("$limit", resultLimit));
+        }
+        return pipeline;
+    }
+
+    private boolean endsWithOutputStage() {
+        if (operations.isEmpty()) {
+            return false;
+        }
+        BasicDBObject lastOperation = operations.get(operations.size() - 1);
+        return lastOperation.containsField("$out") || lastOperation.containsField("$merge");
+    }
+
     public void setFilter(String query) {
         if (!StringUtils.isBlank(query)) {
             filter = Document.parse(query);
@@ -99,4 +130,156 @@ public class MongoQueryOptions {
     public void setResultLimit(int resultLimit) {
         this.resultLimit = resultLimit;
     }
+
+    public int getSkip() {
+        return skip;
+    }
+
+    public void setSkip(int skip) {
+        this.skip = skip;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public boolean isAllowDiskUse() {
+        return allowDiskUse;
+    }
+
+    public void setAllowDiskUse(boolean allowDiskUse) {
+        this.allowDiskUse = allowDiskUse;
+    }
+
+    /**
+     * @return the server side time limit of the query, 0 meaning no limit
+     */
+    public long getMaxTimeInMillis() {
+        return maxTimeInMillis;
+    }
+
+    public void setMaxTimeInMillis(long maxTimeInMillis) {
+        this.maxTimeInMillis = maxTimeInMillis;
+    }
+
+    /**
+     * @return the tag sent along with the query, which identifies its operations on the server
+     */
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    /**
+     * @return a copy of these options tagged with the given comment, so that each query is identified on its own
+     */
+    public MongoQueryOptions withComment(String comment) {
+        MongoQueryOptions commentedQueryOptions = forPage(skip, resultLimit);
+        commentedQueryOptions.comment = comment;
+        return commentedQueryOptions;
+    }
+
+    /**
+     * @return a copy of these options which only fetches the documents of a single page
+     */
+    public MongoQueryOptions forPage(int skip, int limit) {
+        MongoQueryOptions pageQueryOptions = new MongoQueryOptions();
+        pageQueryOptions.operations.addAll(operations);
+        pageQueryOptions.filter = filter;
+        pageQueryOptions.projection = projection;
+        pageQueryOptions.sort = sort;
+        pageQueryOptions.skip = skip;
+        pageQueryOptions.resultLimit = limit;
+        pageQueryOptions.batchSize = batchSize;
+        pageQueryOptions.allowDiskUse = allowDiskUse;
+        pageQueryOptions.maxTimeInMillis = maxTimeInMillis;
+        pageQueryOptions.comment = comment;
+        return pageQueryOptions;
+    }
+
+    /**
+     * Keyset pagination needs a total order, so the _id is added as a tie breaker when the sort does not have it.
+     */
+    public Document getKeysetSort() {
+        Document keysetSort = new Document(sort);
+        if (!keysetSort.containsKey(ID_KEY)) {
+            keysetSort.append(ID_KEY, ASCENDING);
+        }
+        return keysetSort;
+    }
+
+    public boolean isKeysetSortable() {
+        for (Object direction : sort.values()) {
+            if (!(direction instanceof Number)) {
+                return false;
+            }
+            int intDirection = ((Number) direction).intValue();
+            if (intDirection != ASCENDING && intDirection != DESCENDING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the values of the sort keys in the given document, or null if one of them is missing
+     */
+    public Document extractKeysetBoundary(Document document) {
+        Document keysetBoundary = new Document();
+        for (String key : getKeysetSort().keySet()) {
+            Object value = getValueByPath(document, key);
+            if (value == null) {
+                return null;
+            }
+            keysetBoundary.append(key, value);
+        }
+        return keysetBoundary;
+    }
+
+    /**
+     * @return a copy of these options which only fetches the documents sorted after the given boundary
+     */
+    public MongoQueryOptions forKeysetPage(Document keysetBoundary, int limit) {
+        MongoQueryOptions pageQueryOptions = forPage(0, limit);
+        Document keysetSort = getKeysetSort();
+        pageQueryOptions.sort = keysetSort;
+        if (keysetBoundary == null) {
+            return pageQueryOptions;
+        }
+
+        List<Document> rangeConditions = new LinkedList<>();
+        Document equalityPrefix = new Document();
+        for (Map.Entry<String, Object> sortEntry : keysetSort.entrySet()) {
+            String key = sortEntry.getKey();
+            Object boundaryValue = keysetBoundary.get(key);
+            String operator = ((Number) sortEntry.getValue()).intValue() == DESCENDING ? "$lt" : "$gt";
+
+            rangeConditions.add(new Document(equalityPrefix).append(key, new Document(operator, boundaryValue)));
+            equalityPrefix.append(key, boundaryValue);
+        }
+
+        Document rangeFilter = rangeConditions.size() == 1 ? rangeConditions.get(0) : new Document("$or", rangeConditions);
+        pageQueryOptions.filter = EMPTY_DOCUMENT.equals(filter)
+                ? rangeFilter
+                : new Document("$and", Arrays.asList(filter, rangeFilter));
+        return pageQueryOptions;
+    }
+
+    private static Object getValueByPath(Document document, String path) {
+        Object value = document;
+        for (String key : StringUtils.split(path, ".")) {
+            if (!(value instanceof Document)) {
+                return null;
+            }
+            value = ((Document) value).get(key);
+        }
+        return value;
+    }
 }
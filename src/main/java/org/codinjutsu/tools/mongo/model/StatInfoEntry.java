@@ -30,13 +30,7 @@ public abstract class StatInfoEntry<T> {
     private final String key;
     protected final T value;
 
-    static DataExtractor<Number> NUMBER_EXTRACTOR = (key, document) -> {
-        if (document.get(key) instanceof Double) {
-            return document.getDouble(key);
-        } else {
-            return document.getInteger(key);
-        }
-    };
+    static DataExtractor<Number> NUMBER_EXTRACTOR = (key, document) -> (Number) document.get(key);
     static DataExtractor<Boolean> BOOLEAN_EXTRACTOR = (key, document) -> document.getBoolean(key, false);
     static DataExtractor<Document> DOCUMENT_EXTRACTOR = (key, document) -> (Document) document.get(key);
 
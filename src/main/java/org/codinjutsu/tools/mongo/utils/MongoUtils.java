@@ -26,12 +26,15 @@ import com.mongodb.MongoClient;
 import org.bson.Document;
 import org.bson.codecs.BsonTypeClassMap;
 import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
 import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriter;
 import org.bson.json.JsonWriterSettings;
 import org.codinjutsu.tools.mongo.ServerConfiguration;
 import org.codinjutsu.tools.mongo.model.MongoDatabase;
 
-import java.util.LinkedList;
+import java.io.Writer;
 import java.util.List;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
@@ -49,6 +52,13 @@ public class MongoUtils {
                     .build();
 
 
+    // the settings used by Document.toJson(Encoder)
+    private static final JsonWriterSettings DOCUMENT_WRITER_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.STRICT)
+            .build();
+
+    private static final String ELLIPSIS = "...";
+
     private MongoUtils() {
     }
 
@@ -115,21 +125,129 @@ public class MongoUtils {
     }
 
     public static String stringifyList(List list) {
-        List<String> stringifiedObjects = new LinkedList<>();
+        BoundedStringWriter writer = new BoundedStringWriter(Integer.MAX_VALUE);
+        writeList(list, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Same as {@link #stringifyList(List)}, but the serialisation stops as soon as the result is longer than
+     * maxLength, so that a huge list costs no more than a small one. A cut result ends with an ellipsis.
+     */
+    public static String stringifyList(List list, int maxLength) {
+        BoundedStringWriter writer = new BoundedStringWriter(maxLength - ELLIPSIS.length());
+        try {
+            writeList(list, writer);
+        } catch (BoundedStringWriter.LimitReachedException ex) {
+            return writer.toString() + ELLIPSIS;
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Same as {@code document.toJson(DOCUMENT_CODEC)} with the bound of {@link #stringifyList(List, int)}.
+     */
+    public static String toJson(Document document, int maxLength) {
+        BoundedStringWriter writer = new BoundedStringWriter(maxLength - ELLIPSIS.length());
+        try {
+            writeDocument(document, writer);
+        } catch (BoundedStringWriter.LimitReachedException ex) {
+            return writer.toString() + ELLIPSIS;
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Streams the same JSON as {@code document.toJson(DOCUMENT_CODEC)} to the writer, without building the string.
+     */
+    public static void writeJson(Document document, Writer writer) {
+        writeDocument(document, writer);
+    }
+
+    private static void writeList(List list, BoundedStringWriter writer) {
+        writer.write("[");
+        boolean first = true;
         for (Object object : list) {
+            if (!first) {
+                writer.write(", ");
+            }
+            first = false;
+
             if (object == null) {
-                stringifiedObjects.add("null");
+                writer.write("null");
             } else if (object instanceof String) {
-                stringifiedObjects.add("\"" + object.toString() + "\"");
+                writer.write("\"" + object.toString() + "\"");
             } else if (object instanceof Document) {
-                stringifiedObjects.add(((Document) object).toJson(DOCUMENT_CODEC));
+                writeDocument((Document) object, writer);
             } else if (object instanceof List) {
-                stringifiedObjects.add(stringifyList(((List) object)));
+                writeList((List) object, writer);
             } else {
-                stringifiedObjects.add(object.toString());
+                writer.write(object.toString());
+            }
+        }
+        writer.write("]");
+    }
+
+    private static void writeDocument(Document document, Writer writer) {
+        DOCUMENT_CODEC.encode(new JsonWriter(writer, DOCUMENT_WRITER_SETTINGS), document,
+                EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+    }
+
+    /**
+     * Gives up by throwing as soon as more than its limit is written, which interrupts the serialisation.
+     */
+    private static class BoundedStringWriter extends Writer {
+
+        private final StringBuilder builder = new StringBuilder();
+        private final int limit;
+
+        private BoundedStringWriter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(String str) {
+            write(str, 0, str.length());
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            int remaining = limit - builder.length();
+            if (len > remaining) {
+                builder.append(str, off, off + remaining);
+                throw new LimitReachedException();
+            }
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            int remaining = limit - builder.length();
+            if (len > remaining) {
+                builder.append(cbuf, off, remaining);
+                throw new LimitReachedException();
             }
+            builder.append(cbuf, off, len);
         }
 
-        return "[" + org.apache.commons.lang.StringUtils.join(stringifiedObjects, ", ") + "]";
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+
+        private static class LimitReachedException extends RuntimeException {
+
+            private LimitReachedException() {
+                super(null, null, false, false);
+            }
+        }
     }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.view;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import org.codinjutsu.tools.mongo.model.MongoCollectionStats;
+import org.codinjutsu.tools.mongo.model.MongoDatabase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+public class MongoCollectionsStatsDialog extends DialogWrapper {
+
+    private final MongoCollectionsStatsTable collectionsStatsTable = new MongoCollectionsStatsTable();
+
+    public static MongoCollectionsStatsDialog create(Project project, MongoDatabase mongoDatabase, List<MongoCollectionStats> collectionsStats) {
+        MongoCollectionsStatsDialog collectionsStatsDialog = new MongoCollectionsStatsDialog(project);
+        collectionsStatsDialog.collectionsStatsTable.updateStats(collectionsStats);
+        collectionsStatsDialog.init();
+        collectionsStatsDialog.setTitle(String.format("Collection Statistics of %s", mongoDatabase.getName()));
+        return collectionsStatsDialog;
+    }
+
+    private MongoCollectionsStatsDialog(Project project) {
+        super(project, false);
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JBScrollPane scrollPane = new JBScrollPane(collectionsStatsTable);
+        scrollPane.setPreferredSize(new Dimension(700, 400));
+        return scrollPane;
+    }
+
+    @NotNull
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction()};
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.view;
+
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import org.codinjutsu.tools.mongo.model.CollectionStatInfoEnum;
+import org.codinjutsu.tools.mongo.model.MongoCollectionStats;
+import org.codinjutsu.tools.mongo.model.StatInfoEntry;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+import java.util.Comparator;
+import java.util.List;
+
+class MongoCollectionsStatsTable extends TableView<MongoCollectionStats> {
+
+    private static final ColumnInfo[] COLUMN_INFOS = {
+            new CollectionNameColumnInfo(),
+            new StatColumnInfo(CollectionStatInfoEnum.size),
+            new StatColumnInfo(CollectionStatInfoEnum.count),
+            new StatColumnInfo(CollectionStatInfoEnum.avgObjSize),
+            new StatColumnInfo(CollectionStatInfoEnum.storageSize),
+            new StatColumnInfo(CollectionStatInfoEnum.totalIndexSize)
+    };
+
+    MongoCollectionsStatsTable() {
+        super(createModel());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ListTableModel<MongoCollectionStats> createModel() {
+        ListTableModel<MongoCollectionStats> tableModel = new ListTableModel<>(COLUMN_INFOS);
+        tableModel.setSortable(true);
+        return tableModel;
+    }
+
+    void updateStats(List<MongoCollectionStats> collectionsStats) {
+        getListTableModel().setItems(collectionsStats);
+    }
+
+    private static class CollectionNameColumnInfo extends ColumnInfo<MongoCollectionStats, String> {
+
+        CollectionNameColumnInfo() {
+            super("Collection");
+        }
+
+        @Nullable
+        @Override
+        public String valueOf(MongoCollectionStats collectionStats) {
+            return collectionStats.getCollectionName();
+        }
+
+        @Nullable
+        @Override
+        public Comparator<MongoCollectionStats> getComparator() {
+            return Comparator.comparing(MongoCollectionStats::getCollectionName);
+        }
+    }
+
+    /**
+     * Shows the formatted value, but sorts on the raw number so that e.g. "2 GB" comes after "900 MB".
+     */
+    private static class StatColumnInfo extends ColumnInfo<MongoCollectionStats, String> {
+
+        private static final TableCellRenderer RIGHT_ALIGNED_RENDERER = createRightAlignedRenderer();
+
+        private final CollectionStatInfoEnum statInfo;
+
+        StatColumnInfo(CollectionStatInfoEnum statInfo) {
+            super(statInfo.name());
+            this.statInfo = statInfo;
+        }
+
+        @Nullable
+        @Override
+        public String valueOf(MongoCollectionStats collectionStats) {
+            StatInfoEntry statInfoEntry = collectionStats.getStatInfo(statInfo);
+            return statInfoEntry == null ? null : statInfoEntry.getStringifiedValue();
+        }
+
+        @Nullable
+        @Override
+        public Comparator<MongoCollectionStats> getComparator() {
+            return Comparator.comparingDouble(this::getNumberValue);
+        }
+
+        @Nullable
+        @Override
+        public TableCellRenderer getRenderer(MongoCollectionStats collectionStats) {
+            return RIGHT_ALIGNED_RENDERER;
+        }
+
+        private double getNumberValue(MongoCollectionStats collectionStats) {
+            StatInfoEntry statInfoEntry = collectionStats.getStatInfo(statInfo);
+            if (statInfoEntry == null || !(statInfoEntry.getValue() instanceof Number)) {
+                return 0;
+            }
+            return ((Number) statInfoEntry.getValue()).doubleValue();
+        }
+
+        private static TableCellRenderer createRightAlignedRenderer() {
+            DefaultTableCellRenderer renderer = new DefaultTableCellRenderer();
+            renderer.setHorizontalAlignment(SwingConstants.RIGHT);
+            return renderer;
+        }
+    }
+}
@@ -36,19 +36,23 @@ import com.intellij.ui.PopupHandler;
 import com.intellij.ui.TreeSpeedSearch;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.Alarm;
+import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.ui.UIUtil;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
-import org.bson.Document;
 import org.bson.json.JsonParseException;
 import org.codinjutsu.tools.mongo.MongoConfiguration;
 import org.codinjutsu.tools.mongo.ServerConfiguration;
+import org.codinjutsu.tools.mongo.SshTunnelingConfiguration;
 import org.codinjutsu.tools.mongo.logic.ConfigurationException;
+import org.codinjutsu.tools.mongo.logic.JsonDocumentReader;
 import org.codinjutsu.tools.mongo.logic.MongoManager;
 import org.codinjutsu.tools.mongo.logic.Notifier;
+import org.codinjutsu.tools.mongo.logic.StatsCache;
 import org.codinjutsu.tools.mongo.model.*;
 import org.codinjutsu.tools.mongo.utils.GuiUtils;
 import org.codinjutsu.tools.mongo.view.action.explorer.*;
+import org.codinjutsu.tools.mongo.view.dataexport.DataExportTask;
 import org.codinjutsu.tools.mongo.view.editor.MongoFileSystem;
 import org.codinjutsu.tools.mongo.view.editor.MongoObjectFile;
 import org.codinjutsu.tools.mongo.view.model.MongoTreeBuilder;
@@ -62,9 +66,10 @@ import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
@@ -73,6 +78,10 @@ import static org.codinjutsu.tools.mongo.utils.GuiUtils.showNotification;
 public class MongoExplorerPanel extends JPanel implements Disposable {
 
     private static final URL pluginSettingsUrl = GuiUtils.class.getResource("/general/add.png");
+
+    private static final int STATS_CACHE_SIZE = 200;
+    private static final long STATS_TIME_TO_LIVE_IN_MILLIS = 30000;
+    private static final int STATS_REFRESH_DELAY_IN_MILLIS = 150;
     private final MongoInfosTable mongoInfosTable;
 
     private JPanel rootPanel;
@@ -89,6 +98,11 @@ public class MongoExplorerPanel extends JPanel implements Disposable {
     private final Notifier notifier;
 
     private final MongoTreeBuilder mongoTreeBuilder;
+    private final Set<MongoDatabase> databasesLoadingCollections = ContainerUtil.newConcurrentSet();
+
+    private final StatsCache statsCache = new StatsCache(STATS_CACHE_SIZE, STATS_TIME_TO_LIVE_IN_MILLIS);
+    private final Alarm statsAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+    private String displayedStatsNamespace;
 
     public MongoExplorerPanel(Project project, MongoManager mongoManager, Notifier notifier) {
         this.project = project;
@@ -99,7 +113,7 @@ public class MongoExplorerPanel extends JPanel implements Disposable {
         treePanel.setLayout(new BorderLayout());
 
         mongoTree = createTree();
-        mongoTreeBuilder = new MongoTreeBuilder(mongoTree);
+        mongoTreeBuilder = new MongoTreeBuilder(mongoTree, this::loadCollections);
 
 
         setLayout(new BorderLayout());
@@ -140,6 +154,7 @@ public class MongoExplorerPanel extends JPanel implements Disposable {
     }
 
     public void closeServer(MongoServer mongoServer) {
+     mongoManager.disconnect(mongoServer.getConfiguration());
      ApplicationManager.getApplication().invokeLater(() -> {
          mongoServer.setDatabases(Collections.emptyList());
          mongoTreeBuilder.queueUpdateFrom(mongoServer, true);
@@ -147,31 +162,92 @@ public class MongoExplorerPanel extends JPanel implements Disposable {
     }
 
     public void openServer(final MongoServer mongoServer) {
+        statsCache.invalidate(getServerStatsNamespace(mongoServer.getConfiguration()));
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Connecting to " + mongoServer.getLabel()) {
 
             @Override
             public void run(@NotNull ProgressIndicator indicator) {
-                mongoTree.setPaintBusy(true);
-                ApplicationManager.getApplication().invokeLater(() -> {
-                    try {
-                        List<MongoDatabase> mongoDatabases = mongoManager.loadDatabases(mongoServer, mongoServer.getConfiguration());
-                        if (mongoDatabases.isEmpty()) {
-                            return;
-                        }
+                UIUtil.invokeLaterIfNeeded(() -> {
+                    mongoTree.setPaintBusy(true);
+                    mongoServer.setStatus(MongoServer.Status.LOADING);
+                    mongoServer.setDatabases(new LinkedList<>());
+                    mongoTreeBuilder.queueUpdateFrom(mongoServer, true);
+                });
+                try {
+                    List<MongoDatabase> mongoDatabases = mongoManager.loadDatabases(mongoServer, mongoServer.getConfiguration());
+
+                    UIUtil.invokeLaterIfNeeded(() -> {
                         mongoServer.setDatabases(mongoDatabases);
+                        mongoServer.setStatus(MongoServer.Status.OK);
                         mongoTreeBuilder.queueUpdateFrom(mongoServer, true)
                                 .doWhenDone(() -> mongoTreeBuilder.expand(mongoServer, null));
-
-                    } catch (ConfigurationException confEx) {
+                    });
+                } catch (ConfigurationException confEx) {
+                    String errorMessage = String.format("Error when connecting to %s", mongoServer.getLabel());
+                    notifier.notifyError(errorMessage + ": " + confEx.getMessage());
+                    UIUtil.invokeLaterIfNeeded(() -> {
                         mongoServer.setStatus(MongoServer.Status.ERROR);
+                        mongoTreeBuilder.queueUpdateFrom(mongoServer, true);
+                        showNotification(treePanel, MessageType.ERROR, errorMessage, Balloon.Position.atLeft);
+                    });
+                } finally {
+                    UIUtil.invokeLaterIfNeeded(() -> mongoTree.setPaintBusy(false));
+                }
+            }
+        });
+    }
 
-                        String errorMessage = String.format("Error when connecting to %s", mongoServer.getLabel());
-                        notifier.notifyError(errorMessage + ": " + confEx.getMessage());
-                        UIUtil.invokeLaterIfNeeded(() -> showNotification(treePanel, MessageType.ERROR, errorMessage, Balloon.Position.atLeft));
-                    } finally {
-                        mongoTree.setPaintBusy(false);
-                    }
-                });
+    /**
+     * Lists the collections of a database the first time it is expanded. They are kept until the server is refreshed.
+     * When the listing fails, the error is shown under the database and the collections are listed again on the next expand.
+     */
+    private void loadCollections(final MongoDatabase mongoDatabase) {
+        if (!databasesLoadingCollections.add(mongoDatabase)) {
+            return;
+        }
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Loading collections of " + mongoDatabase.getName()) {
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    final List<MongoCollection> mongoCollections = mongoManager.loadCollections(mongoDatabase.getParentServer().getConfiguration(), mongoDatabase);
+                    UIUtil.invokeLaterIfNeeded(() -> {
+                        mongoDatabase.setCollections(mongoCollections);
+                        databasesLoadingCollections.remove(mongoDatabase);
+                        mongoTreeBuilder.queueUpdateFrom(mongoDatabase, true);
+                    });
+                } catch (ConfigurationException confEx) {
+                    String errorMessage = String.format("Error when loading the collections of %s", mongoDatabase.getName());
+                    notifier.notifyError(errorMessage + ": " + confEx.getMessage());
+                    UIUtil.invokeLaterIfNeeded(() -> {
+                        mongoDatabase.setCollectionsLoadingError(confEx.getMessage() != null ? confEx.getMessage() : errorMessage);
+                        databasesLoadingCollections.remove(mongoDatabase);
+                        mongoTreeBuilder.queueUpdateFrom(mongoDatabase, true);
+                        showNotification(treePanel, MessageType.ERROR, errorMessage, Balloon.Position.atLeft);
+                    });
+                }
+            }
+        });
+    }
+
+    public void showCollectionsStats(final MongoDatabase mongoDatabase) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Computing the collection statistics of " + mongoDatabase.getName(), true) {
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                final List<MongoCollectionStats> collectionsStats;
+                try {
+                    collectionsStats = mongoManager.getCollectionsStats(mongoDatabase.getParentServer().getConfiguration(), mongoDatabase);
+                } catch (ConfigurationException confEx) {
+                    notifier.notifyError(String.format("Error when computing the collection statistics of %s: %s", mongoDatabase.getName(), confEx.getMessage()));
+                    return;
+                }
+
+                if (indicator.isCanceled()) {
+                    return;
+                }
+                UIUtil.invokeLaterIfNeeded(() -> MongoCollectionsStatsDialog.create(project, mongoDatabase, collectionsStats).show());
             }
         });
     }
@@ -241,6 +317,8 @@ public class MongoExplorerPanel extends JPanel implements Disposable {
             actionPopupGroup.addSeparator();
             actionPopupGroup.add(new ViewCollectionValuesAction(this));
             actionPopupGroup.add(new DataImportAction(this));
+            actionPopupGroup.add(new DataExportAction(this));
+            actionPopupGroup.add(new ViewCollectionsStatsAction(this));
         }
 
         PopupHandler.installPopupHandler(mongoTree, actionPopupGroup, "POPUP", ActionManager.getInstance());
@@ -266,23 +344,69 @@ public class MongoExplorerPanel extends JPanel implements Disposable {
             }
         }.installOn(mongoTree);
 
-        mongoTree.getSelectionModel().addTreeSelectionListener(event -> ApplicationManager.getApplication().invokeLater(() -> {
+        mongoTree.getSelectionModel().addTreeSelectionListener(event -> showSelectedStats());
+    }
+
+    /**
+     * Shows the cached stats of the selection right away, and refreshes them in background when they are expired.
+     * The refresh is delayed a little, so that it is skipped when the selection changes quickly.
+     */
+    private void showSelectedStats() {
+        statsAlarm.cancelAllRequests();
+
+        final MongoCollection selectedCollection = getSelectedCollection();
+        final MongoDatabase selectedDatabase = selectedCollection != null ? selectedCollection.getParentDatabase() : getSelectedDatabase();
+        if (selectedDatabase == null) {
+            displayedStatsNamespace = null;
+            mongoInfosTable.updateInfos(Collections.emptyList());
+            return;
+        }
+
+        final ServerConfiguration configuration = selectedDatabase.getParentServer().getConfiguration();
+        final String namespace = getStatsNamespace(configuration, selectedDatabase, selectedCollection);
+        displayedStatsNamespace = namespace;
+
+        StatsCache.Entry cachedStats = statsCache.get(namespace);
+        mongoInfosTable.updateInfos(cachedStats != null ? cachedStats.getStats() : Collections.emptyList());
+        if (cachedStats != null && !cachedStats.isExpired()) {
+            return;
+        }
+
+        statsAlarm.addRequest(() -> {
             List<StatInfoEntry> statInfos;
-            MongoCollection selectedCollection = MongoExplorerPanel.this.getSelectedCollection();
-            if (selectedCollection != null) {
-                statInfos = mongoManager.getCollStats(MongoExplorerPanel.this.getConfiguration(), selectedCollection);
-                mongoInfosTable.updateInfos(statInfos);
+            try {
+                statInfos = selectedCollection != null
+                        ? mongoManager.getCollStats(configuration, selectedCollection)
+                        : mongoManager.getDbStats(configuration, selectedDatabase);
+            } catch (ConfigurationException confEx) {
+                // the stale stats, if any, remain displayed
                 return;
             }
 
-            MongoDatabase selectedDatabase = MongoExplorerPanel.this.getSelectedDatabase();
-            if (selectedDatabase != null) {
-                statInfos = mongoManager.getDbStats(MongoExplorerPanel.this.getConfiguration(), selectedDatabase);
-                mongoInfosTable.updateInfos(statInfos);
-                return;
-            }
-            mongoInfosTable.updateInfos(Collections.emptyList());
-        }));
+            statsCache.put(namespace, statInfos);
+            UIUtil.invokeLaterIfNeeded(() -> {
+                if (namespace.equals(displayedStatsNamespace)) {
+                    mongoInfosTable.updateInfos(statInfos);
+                }
+            });
+        }, STATS_REFRESH_DELAY_IN_MILLIS);
+    }
+
+    private static String getStatsNamespace(ServerConfiguration configuration, MongoDatabase mongoDatabase, MongoCollection mongoCollection) {
+        String namespace = getServerStatsNamespace(configuration) + mongoDatabase.getName();
+        return mongoCollection != null ? namespace + "." + mongoCollection.getName() : namespace;
+    }
+
+    /**
+     * Identifies the server by its addresses rather than by its label, which is neither unique nor fixed.
+     */
+    private static String getServerStatsNamespace(ServerConfiguration configuration) {
+        String serverNamespace = configuration.getUrlsInSingleString();
+        SshTunnelingConfiguration sshTunnelingConfiguration = configuration.getSshTunnelingConfiguration();
+        if (!SshTunnelingConfiguration.isEmpty(sshTunnelingConfiguration)) {
+            serverNamespace += "@" + sshTunnelingConfiguration.getProxyUrl();
+        }
+        return serverNamespace + "/";
     }
 
     private void expandAll() {
@@ -412,6 +536,7 @@ public class MongoExplorerPanel extends JPanel implements Disposable {
     public void removeSelectedServer(@NotNull MongoServer mongoServer) {
         MongoConfiguration mongoConfiguration = MongoConfiguration.getInstance(project);
         mongoConfiguration.removeServerConfiguration(mongoServer.getConfiguration());
+        mongoManager.disconnect(mongoServer.getConfiguration());
 
         notifier.notifyInfo("Server configuration " + mongoServer.getLabel() + " removed");
 
@@ -438,33 +563,35 @@ public class MongoExplorerPanel extends JPanel implements Disposable {
         mongoTreeBuilder.removeCollection(mongoCollection);
     }
 
-    public void importDataFile(MongoCollection mongoCollection, String filePath, boolean replaceAllDocuments) {
-        try (InputStream inputStream = FileUtils.openInputStream(new File(filePath))) {
-            List<Document> documentsToImport = parseFileToImport(inputStream);
-            ServerConfiguration configuration = mongoCollection
-                    .getParentDatabase()
-                    .getParentServer()
-                    .getConfiguration();
-
-            notifier.notifyInfo(String.format("Importing data: \n\t\tfrom file=%s\n\t\tinto collection=%s", filePath, mongoCollection.getName()));
-            mongoManager.importData(configuration, mongoCollection, documentsToImport, replaceAllDocuments);
-        } catch (IOException ex) {
-            notifier.notifyError("Error when reading file: " + ex.getMessage());
-        } catch (JsonParseException ex) {
-            notifier.notifyError("Error when parsing file: " + ex.getMessage());
-        } catch (ConfigurationException ex) {
-            notifier.notifyError("Error when importing file in Mongo: " + ex.getMessage());
-        }
+    public void importDataFile(final MongoCollection mongoCollection, final String filePath, final MongoImportOptions importOptions) {
+        final ServerConfiguration configuration = mongoCollection
+                .getParentDatabase()
+                .getParentServer()
+                .getConfiguration();
+
+        notifier.notifyInfo(String.format("Importing data: \n\t\tfrom file=%s\n\t\tinto collection=%s", filePath, mongoCollection.getName()));
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Importing data into " + mongoCollection.getName(), true) {
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                File file = new File(filePath);
+                try (JsonDocumentReader documentReader = new JsonDocumentReader(FileUtils.openInputStream(file), file.length())) {
+                    MongoImportResult importResult = mongoManager.importData(configuration, mongoCollection, documentReader, importOptions, indicator);
+                    notifier.notifyInfo(String.format("%s into %s", importResult.getSummary(), mongoCollection.getName()));
+                } catch (IOException | UncheckedIOException ex) {
+                    notifier.notifyError("Error when reading file: " + ex.getMessage());
+                } catch (JsonParseException ex) {
+                    notifier.notifyError("Error when parsing file: " + ex.getMessage());
+                } catch (ConfigurationException ex) {
+                    notifier.notifyError("Error when importing file in Mongo: " + ex.getMessage());
+                }
+            }
+        });
     }
 
-    private List<Document> parseFileToImport(InputStream inputStream) throws IOException {
-        String json = IOUtils.toString(inputStream);
-        if (json.startsWith("[") && json.endsWith("]")) {
-            //TODO UGLY : need to refactor this crap
-            return (List<Document>) Document.parse(String.format("{ \"documentsToImport\": %s}", json)).get("documentsToImport");
-        } else {
-            return Collections.singletonList(Document.parse(json));
-        }
+    public void exportCollectionData(MongoCollection mongoCollection, MongoExportOptions exportOptions) {
+        ProgressManager.getInstance().run(new DataExportTask(project, mongoManager, mongoCollection, null, exportOptions));
     }
 
     public MongoManager getMongoManager() {
@@ -473,6 +600,6 @@ public class MongoExplorerPanel extends JPanel implements Disposable {
 
     @Override
     public void dispose() {
-
+        statsAlarm.cancelAllRequests();
     }
 }
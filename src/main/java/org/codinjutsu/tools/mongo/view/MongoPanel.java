@@ -16,6 +16,7 @@
 
 package org.codinjutsu.tools.mongo.view;
 
+import com.intellij.concurrency.JobScheduler;
 import com.intellij.ide.CommonActionsManager;
 import com.intellij.ide.TreeExpander;
 import com.intellij.openapi.Disposable;
@@ -38,6 +39,7 @@ import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.panels.NonOpaquePanel;
 import com.intellij.util.ui.UIUtil;
 import com.mongodb.DBRef;
+import org.apache.commons.lang.StringUtils;
 import org.bson.Document;
 import org.codinjutsu.tools.mongo.ServerConfiguration;
 import org.codinjutsu.tools.mongo.logic.MongoManager;
@@ -45,6 +47,7 @@ import org.codinjutsu.tools.mongo.logic.Notifier;
 import org.codinjutsu.tools.mongo.model.*;
 import org.codinjutsu.tools.mongo.view.action.pagination.PaginationAction;
 import org.codinjutsu.tools.mongo.view.action.result.*;
+import org.codinjutsu.tools.mongo.view.dataexport.DataExportTask;
 import org.codinjutsu.tools.mongo.view.model.NbPerPage;
 import org.codinjutsu.tools.mongo.view.model.Pagination;
 import org.codinjutsu.tools.mongo.view.model.navigation.Navigation;
@@ -54,9 +57,18 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MongoPanel extends JPanel implements Disposable {
 
+    private static final long DEFAULT_COUNT_MAX_TIME_IN_MILLIS = 5000;
+    private static final long CANCEL_POLLING_DELAY_IN_MILLIS = 200;
+
     private final Project project;
     private final LoadingDecorator loadingDecorator;
     private JPanel rootPanel;
@@ -66,6 +78,7 @@ public class MongoPanel extends JPanel implements Disposable {
     private JPanel paginationPanel;
 
     private final JTextField rowLimitField = new JTextField();
+    private final JTextField batchSizeField = new JTextField();
     private final JBLabel rowCountLabel = new JBLabel();
     private final JBLabel pageNumberLabel = new JBLabel();
 
@@ -75,10 +88,15 @@ public class MongoPanel extends JPanel implements Disposable {
     private final MongoManager mongoManager;
     private final ServerConfiguration configuration;
     private final Navigation navigation;
-    private MongoCollectionResult currentResults;
+    private volatile MongoCollectionResult currentResults;
 
     private final Pagination pagination;
 
+    private volatile ProgressIndicator countIndicator;
+    private MongoQueryOptions countedQueryOptions;
+
+    private boolean loadingMoreDocuments = false;
+
     public MongoPanel(Project project, final MongoManager mongoManager, final ServerConfiguration configuration, final Navigation navigation) {
         this.project = project;
         this.mongoManager = mongoManager;
@@ -94,6 +112,11 @@ public class MongoPanel extends JPanel implements Disposable {
         queryPanel.setVisible(false);
 
         resultPanel = createResultPanel(project, Notifier.getInstance(project));
+        resultPanel.setScrolledToEndListener(() -> {
+            if (resultPanel.canAppendDocuments(currentResults, pagination)) {
+                loadMoreDocuments();
+            }
+        });
 
         loadingDecorator = new LoadingDecorator(resultPanel, this, 0);
         splitter.setOrientation(true);
@@ -106,21 +129,124 @@ public class MongoPanel extends JPanel implements Disposable {
         initToolBar();
         initPaginationPanel();
 
-        pagination.addSetPageListener(() -> showResults(true));
         pagination.addSetPageListener(() -> {
-                    pagination.setTotalDocuments(currentResults.getTotalDocumentNumber());
-                    if (NbPerPage.ALL.equals(pagination.getNbPerPage())) {
-                        pageNumberLabel.setVisible(false);
-                    } else {
-                        pageNumberLabel.setText(
-                                String.format("Page %d/%d",
-                                        pagination.getPageNumber(),
-                                        pagination.getTotalPageNumber())
-                        );
-                        pageNumberLabel.setVisible(true);
-                    }
+            boolean clientSidePage = !pagination.isServerSide() && !currentResults.isPage();
+            int pageEndIndex = pagination.getStartIndex() + pagination.getNbDocumentsPerPage();
+            if (clientSidePage && !loadingMoreDocuments && currentResults.hasMoreDocuments()
+                    && currentResults.getTotalDocumentNumber() < pageEndIndex) {
+                loadMoreDocuments(pageEndIndex);
+            } else {
+                showResults(clientSidePage);
+            }
+        });
+    }
+
+    private void updatePageNumberLabel() {
+        if (NbPerPage.ALL.equals(pagination.getNbPerPage())) {
+            pageNumberLabel.setVisible(false);
+            return;
+        }
+
+        if (pagination.isTotalDocumentsKnown()) {
+            pageNumberLabel.setText(
+                    String.format("Page %d/%d",
+                            pagination.getPageNumber(),
+                            pagination.getTotalPageNumber())
+            );
+        } else {
+            pageNumberLabel.setText(String.format("Page %d", pagination.getPageNumber()));
+        }
+        pageNumberLabel.setVisible(true);
+    }
+
+    private void updatePaginationTotal(Navigation.WayPoint wayPoint) {
+        int nbDocuments = currentResults.getTotalDocumentNumber();
+        pagination.setCurrentPageSize(nbDocuments);
+        if (!currentResults.isPage()) {
+            if (currentResults.hasMoreDocuments()) {
+                // the next pages are fetched from the cursor when they are shown
+                pagination.setCurrentPageSize(Math.max(0, Math.min(pagination.getNbDocumentsPerPage(), nbDocuments - pagination.getStartIndex())));
+                pagination.setTotalDocuments(Pagination.UNKNOWN_TOTAL_DOCUMENTS);
+            } else {
+                pagination.setTotalDocuments(nbDocuments);
+            }
+            return;
+        }
+
+        int lastIndex = pagination.getStartIndex() + nbDocuments;
+        int resultLimit = wayPoint.getQueryOptions().getResultLimit();
+        if (nbDocuments < pagination.getNbDocumentsPerPage() || (resultLimit > 0 && lastIndex >= resultLimit)) {
+            pagination.setTotalDocuments(lastIndex);
+        } else if (wayPoint.getTotalDocuments() != Pagination.UNKNOWN_TOTAL_DOCUMENTS) {
+            pagination.setTotalDocuments(wayPoint.getTotalDocuments());
+        } else {
+            pagination.setTotalDocuments(Pagination.UNKNOWN_TOTAL_DOCUMENTS);
+            countTotalDocuments(wayPoint);
+        }
+    }
+
+    /**
+     * Counts the documents matching the query in background, so that the first page is not delayed by the count.
+     */
+    private void countTotalDocuments(final Navigation.WayPoint wayPoint) {
+        final MongoQueryOptions queryOptions = wayPoint.getQueryOptions();
+        if (countedQueryOptions == queryOptions) {
+            return;
+        }
+        cancelTotalDocumentsCount();
+        countedQueryOptions = queryOptions;
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Count documents of " + wayPoint.getLabel(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                countIndicator = indicator;
+                String queryComment = createQueryComment();
+                ScheduledFuture<?> queryKiller = killQueryOnCancel(indicator, queryComment);
+                long count;
+                try {
+                    count = mongoManager.countDocuments(configuration, wayPoint.getCollection(), queryOptions.getFilter(),
+                            getCountMaxTimeInMillis(queryOptions), queryComment);
+                } catch (Exception ex) {
+                    // the count is only a hint for the pagination, the page remains browsable without it
+                    return;
+                } finally {
+                    queryKiller.cancel(false);
                 }
-        );
+
+                int resultLimit = queryOptions.getResultLimit();
+                int totalDocuments = (int) (resultLimit > 0 ? Math.min(count, resultLimit) : Math.min(count, Integer.MAX_VALUE));
+                UIUtil.invokeLaterIfNeeded(() -> {
+                    if (indicator.isCanceled() || wayPoint.getQueryOptions() != queryOptions) {
+                        return;
+                    }
+                    wayPoint.setTotalDocuments(totalDocuments);
+                    if (navigation.getCurrentWayPoint() == wayPoint && currentResults.isPage()) {
+                        pagination.setTotalDocuments(totalDocuments);
+                        updatePageNumberLabel();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * The count follows the time limit of the query or of the server, so that it is not cut sooner than the query.
+     */
+    private long getCountMaxTimeInMillis(MongoQueryOptions queryOptions) {
+        if (queryOptions.getMaxTimeInMillis() > 0) {
+            return queryOptions.getMaxTimeInMillis();
+        }
+        Integer defaultMaxTimeInMillis = configuration.getDefaultMaxTimeInMillis();
+        return defaultMaxTimeInMillis != null && defaultMaxTimeInMillis > 0 ? defaultMaxTimeInMillis : DEFAULT_COUNT_MAX_TIME_IN_MILLIS;
+    }
+
+    private void cancelTotalDocumentsCount() {
+        ProgressIndicator indicator = countIndicator;
+        if (indicator != null && indicator.isRunning()) {
+            indicator.cancel();
+        }
+        countIndicator = null;
+        countedQueryOptions = null;
     }
 
     private MongoResultPanel createResultPanel(Project project, Notifier notifier) {
@@ -184,10 +310,19 @@ public class MongoPanel extends JPanel implements Disposable {
         rowLimitField.setDocument(new NumberDocument());
         rowLimitField.setText(Integer.toString(configuration.getDefaultRowLimit()));
 
+        batchSizeField.setColumns(4);
+        batchSizeField.setDocument(new NumberDocument());
+        batchSizeField.setText(Integer.toString(MongoQueryOptions.DEFAULT_BATCH_SIZE));
+
+        JPanel batchSizePanel = new NonOpaquePanel();
+        batchSizePanel.add(new JLabel("Batch size:"), BorderLayout.WEST);
+        batchSizePanel.add(batchSizeField, BorderLayout.CENTER);
+        batchSizePanel.add(Box.createHorizontalStrut(5), BorderLayout.EAST);
+
         JPanel rowLimitPanel = new NonOpaquePanel();
         rowLimitPanel.add(new JLabel("Row limit:"), BorderLayout.WEST);
         rowLimitPanel.add(rowLimitField, BorderLayout.CENTER);
-        rowLimitPanel.add(Box.createHorizontalStrut(5), BorderLayout.EAST);
+        rowLimitPanel.add(batchSizePanel, BorderLayout.EAST);
         return rowLimitPanel;
     }
 
@@ -202,6 +337,7 @@ public class MongoPanel extends JPanel implements Disposable {
         actionResultGroup.add(new EditMongoDocumentAction(resultPanel));
         actionResultGroup.add(new DeleteMongoDocumentAction(resultPanel));
         actionResultGroup.add(new CopyAllAction(resultPanel));
+        actionResultGroup.add(new ExportResultsAction(this));
         actionResultGroup.addSeparator();
         actionResultGroup.add(new NavigateBackwardAction(this));
 
@@ -222,6 +358,7 @@ public class MongoPanel extends JPanel implements Disposable {
         actionResultGroup.add(new ChangeNbPerPageActionComponent(() -> new PaginationPopupComponent(pagination).initUi()));
         actionResultGroup.add(new PaginationAction.Previous(pagination));
         actionResultGroup.add(new PaginationAction.Next(pagination));
+        actionResultGroup.add(new LoadMoreDocumentsAction(this));
 
 //TODO Duplicate
         ActionToolbar actionToolBar = ActionManager.getInstance().createActionToolbar("MongoPaginationGroupActions", actionResultGroup, true);
@@ -237,6 +374,7 @@ public class MongoPanel extends JPanel implements Disposable {
         DefaultActionGroup viewSelectGroup = new DefaultActionGroup("MongoViewSelectGroup", false);
         viewSelectGroup.add(new ViewAsTreeAction(this));
         viewSelectGroup.add(new ViewAsTableAction(this));
+        viewSelectGroup.add(new FlattenNestedDocumentsAction(this));
 
 //TODO Duplicate
         ActionToolbar viewToolbar = ActionManager.getInstance().createActionToolbar("MongoViewSelectedActions", viewSelectGroup, true);
@@ -286,6 +424,15 @@ public class MongoPanel extends JPanel implements Disposable {
         actionResultGroup.add(collapseAllAction);
     }
 
+    /**
+     * Exports every document of the last executed query, not only the loaded ones.
+     */
+    public void exportResults(MongoExportOptions exportOptions) {
+        Navigation.WayPoint wayPoint = navigation.getCurrentWayPoint();
+        MongoQueryOptions exportQueryOptions = wayPoint.getQueryOptions().withComment(createQueryComment());
+        ProgressManager.getInstance().run(new DataExportTask(project, mongoManager, wayPoint.getCollection(), exportQueryOptions, exportOptions));
+    }
+
     public Navigation.WayPoint getCurrentWayPoint() {
         return navigation.getCurrentWayPoint();
     }
@@ -303,7 +450,12 @@ public class MongoPanel extends JPanel implements Disposable {
         Navigation.WayPoint currentWayPoint = navigation.getCurrentWayPoint();
         currentWayPoint.setQueryOptions(queryPanel.getQueryOptions(rowLimitField.getText()));
         MongoQueryOptions queryOptions = queryPanel.getQueryOptions(rowLimitField.getText());
+        queryOptions.setBatchSize(getBatchSize());
         currentWayPoint.setQueryOptions(queryOptions);
+        if (pagination.isServerSide() && pagination.getPageNumber() > 1) {
+            pagination.setPageNumber(1);
+            return;
+        }
         executeQuery(false, currentWayPoint);
     }
 
@@ -311,34 +463,81 @@ public class MongoPanel extends JPanel implements Disposable {
     private void executeQuery(final boolean useCachedResults, final Navigation.WayPoint wayPoint) {
         errorPanel.setVisible(false);
         validateQuery();
-        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Get documents from " + wayPoint.getLabel()) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Get documents from " + wayPoint.getLabel(), true) {
             @Override
             public void run(@NotNull ProgressIndicator indicator) {
+                ScheduledFuture<?> queryKiller = null;
                 try {
                     UIUtil.invokeLaterIfNeeded(() -> loadingDecorator.startLoading(false));
 
                     final MongoQueryOptions queryOptions = wayPoint.getQueryOptions();
                     if (!useCachedResults) {
-                        currentResults = mongoManager.findMongoDocuments(
-                                configuration,
-                                wayPoint.getCollection(),
-                                queryOptions);
+                        boolean fetchPage = isServerSidePage(queryOptions);
+                        MongoQueryOptions fetchQueryOptions = fetchPage ? getPageQueryOptions(wayPoint) : queryOptions;
+                        MongoCollectionResult fetchedResults;
+                        if (fetchPage && fetchQueryOptions.getResultLimit() == 0) {
+                            // the page starts past the row limit, and Mongo would read a limit of 0 as no limit at all
+                            fetchedResults = new MongoCollectionResult(wayPoint.getCollection().getName());
+                        } else {
+                            String queryComment = createQueryComment();
+                            // the way point options are shared with the export, they keep no comment
+                            fetchQueryOptions = fetchQueryOptions.withComment(queryComment);
+                            queryKiller = killQueryOnCancel(indicator, queryComment);
+
+                            fetchedResults = mongoManager.findMongoDocuments(
+                                    configuration,
+                                    wayPoint.getCollection(),
+                                    fetchQueryOptions);
+                        }
+                        fetchedResults.setPage(fetchPage);
+                        if (fetchPage) {
+                            // a page is bounded by its size, it is read at once so that its boundaries are known
+                            while (fetchedResults.hasMoreDocuments() && !indicator.isCanceled()) {
+                                fetchedResults.addAll(mongoManager.fetchNextBatch(fetchedResults));
+                            }
+                        } else {
+                            // on the client side, the shown page is filled even when it is bigger than a batch
+                            int pageEndIndex = pagination.getStartIndex() + pagination.getNbDocumentsPerPage();
+                            while (fetchedResults.hasMoreDocuments() && fetchedResults.getTotalDocumentNumber() < pageEndIndex
+                                    && !indicator.isCanceled()) {
+                                fetchedResults.addAll(mongoManager.fetchNextBatch(fetchedResults));
+                            }
+                        }
+                        if (indicator.isCanceled()) {
+                            fetchedResults.close();
+                            return;
+                        }
+                        MongoCollectionResult previousResults = currentResults;
+                        currentResults = fetchedResults;
+                        previousResults.close();
+                        if (fetchPage && pagination.isKeyset()) {
+                            rememberNextKeysetBoundary(wayPoint, fetchQueryOptions);
+                        }
+                    }
+                    final MongoCollectionResult results = currentResults;
+                    final MongoResultPanel.PreparedResultView preparedView = resultPanel.prepareResultView(results, pagination);
+                    if (indicator.isCanceled()) {
+                        return;
                     }
                     UIUtil.invokeLaterIfNeeded(() -> {
-                        resultPanel.updateResultView(currentResults, pagination);
-                        rowCountLabel.setText(String.format("%s documents", currentResults.getDocuments().size()));
+                        if (results != currentResults) {
+                            return;
+                        }
+                        updatePaginationTotal(wayPoint);
+                        resultPanel.updateResultView(results, pagination, preparedView);
+                        updateRowCountLabel();
+                        updatePageNumberLabel();
                         initActions(resultPanel.resultTreeTableView);
 
                     });
                 } catch (final Exception ex) {
-                    UIUtil.invokeLaterIfNeeded(() -> {
-                        errorPanel.invalidate();
-                        errorPanel.removeAll();
-                        errorPanel.add(new ErrorPanel(ex), BorderLayout.CENTER);
-                        errorPanel.validate();
-                        errorPanel.setVisible(true);
-                    });
+                    if (!indicator.isCanceled()) {
+                        UIUtil.invokeLaterIfNeeded(() -> showError(ex));
+                    }
                 } finally {
+                    if (queryKiller != null) {
+                        queryKiller.cancel(false);
+                    }
                     UIUtil.invokeLaterIfNeeded(loadingDecorator::stopLoading);
                 }
 
@@ -346,6 +545,157 @@ public class MongoPanel extends JPanel implements Disposable {
         });
     }
 
+    public boolean hasMoreDocuments() {
+        return currentResults.hasMoreDocuments();
+    }
+
+    /**
+     * Fetches the next batch of the current result in background and appends it to the view.
+     */
+    public void loadMoreDocuments() {
+        loadMoreDocuments(0);
+    }
+
+    /**
+     * Same as {@link #loadMoreDocuments()}, but keeps fetching batches until the result holds at least the given
+     * number of documents or the cursor is exhausted.
+     */
+    private void loadMoreDocuments(int minDocumentNumber) {
+        if (loadingMoreDocuments || !currentResults.hasMoreDocuments()) {
+            return;
+        }
+        loadingMoreDocuments = true;
+
+        final MongoCollectionResult results = currentResults;
+        final int loadedDocumentNumber = results.getTotalDocumentNumber();
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Get more documents from " + results.getCollectionName(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                ScheduledFuture<?> queryKiller = killQueryOnCancel(indicator, results.getQueryComment());
+                try {
+                    final List<Document> documents = new ArrayList<>(mongoManager.fetchNextBatch(results));
+                    while (loadedDocumentNumber + documents.size() < minDocumentNumber && results.hasMoreDocuments()
+                            && !indicator.isCanceled() && results == currentResults) {
+                        documents.addAll(mongoManager.fetchNextBatch(results));
+                    }
+                    UIUtil.invokeLaterIfNeeded(() -> {
+                        if (indicator.isCanceled() || results != currentResults) {
+                            return;
+                        }
+                        int startIndex = results.getTotalDocumentNumber();
+                        results.addAll(documents);
+                        updatePaginationTotal(navigation.getCurrentWayPoint());
+                        if (resultPanel.canAppendDocuments(results, pagination)) {
+                            resultPanel.appendDocuments(documents, startIndex);
+                        } else {
+                            resultPanel.updateResultView(results, pagination);
+                            initActions(resultPanel.resultTreeTableView);
+                        }
+                        updateRowCountLabel();
+                        updatePageNumberLabel();
+                    });
+                } catch (final Exception ex) {
+                    // a new query closes the cursor of the previous result, which is not shown anymore
+                    if (!indicator.isCanceled() && results == currentResults) {
+                        UIUtil.invokeLaterIfNeeded(() -> {
+                            if (results == currentResults) {
+                                showError(ex);
+                            }
+                        });
+                    }
+                } finally {
+                    queryKiller.cancel(false);
+                    UIUtil.invokeLaterIfNeeded(() -> loadingMoreDocuments = false);
+                }
+            }
+        });
+    }
+
+    private static String createQueryComment() {
+        return "Mongo Plugin query " + UUID.randomUUID();
+    }
+
+    /**
+     * The driver calls are blocking, so the indicator is polled in order to kill the query on the server
+     * as soon as it is cancelled, instead of letting it run until its end.
+     */
+    private ScheduledFuture<?> killQueryOnCancel(final ProgressIndicator indicator, final String queryComment) {
+        final AtomicBoolean killed = new AtomicBoolean(false);
+        return JobScheduler.getScheduler().scheduleWithFixedDelay(() -> {
+            if (queryComment == null || !indicator.isCanceled() || !killed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                mongoManager.killQuery(configuration, queryComment);
+            } catch (Exception ex) {
+                // the query may be over already, or the user may not be allowed to kill it: maxTimeMS still applies
+            }
+        }, CANCEL_POLLING_DELAY_IN_MILLIS, CANCEL_POLLING_DELAY_IN_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void updateRowCountLabel() {
+        int nbDocuments = currentResults.getTotalDocumentNumber();
+        rowCountLabel.setText(currentResults.hasMoreDocuments()
+                ? String.format("%s documents (more to load)", nbDocuments)
+                : String.format("%s documents", nbDocuments));
+    }
+
+    private void showError(Exception ex) {
+        errorPanel.invalidate();
+        errorPanel.removeAll();
+        errorPanel.add(new ErrorPanel(ex), BorderLayout.CENTER);
+        errorPanel.validate();
+        errorPanel.setVisible(true);
+    }
+
+    private int getBatchSize() {
+        String batchSize = batchSizeField.getText();
+        if (StringUtils.isBlank(batchSize)) {
+            return MongoQueryOptions.DEFAULT_BATCH_SIZE;
+        }
+        return Integer.parseInt(batchSize);
+    }
+
+    /**
+     * In server side mode, only the documents of the current page are fetched, within the row limit.
+     * Aggregations are still sliced on the client side.
+     */
+    private boolean isServerSidePage(MongoQueryOptions queryOptions) {
+        return pagination.isServerSide() && !queryOptions.isAggregate();
+    }
+
+    private MongoQueryOptions getPageQueryOptions(Navigation.WayPoint wayPoint) {
+        MongoQueryOptions queryOptions = wayPoint.getQueryOptions();
+        int pageNumber = pagination.getPageNumber();
+        int startIndex = pagination.getStartIndex();
+        int pageLimit = pagination.getPageLimit(queryOptions.getResultLimit());
+
+        if (!pagination.isKeyset() || !queryOptions.isKeysetSortable()) {
+            return queryOptions.forPage(startIndex, pageLimit);
+        }
+
+        if (pageNumber == 1) {
+            wayPoint.clearKeysetBoundaries();
+        }
+        MongoQueryOptions pageQueryOptions = queryOptions.forKeysetPage(wayPoint.getKeysetBoundary(pageNumber), pageLimit);
+        if (pageNumber > 1 && wayPoint.getKeysetBoundary(pageNumber) == null) {
+            // the boundary is unknown (e.g. sort key excluded by the projection): fall back to skip on the same order
+            pageQueryOptions.setSkip(startIndex);
+        }
+        return pageQueryOptions;
+    }
+
+    private void rememberNextKeysetBoundary(Navigation.WayPoint wayPoint, MongoQueryOptions pageQueryOptions) {
+        List<Document> documents = currentResults.getDocuments();
+        if (documents.isEmpty()) {
+            return;
+        }
+        Document keysetBoundary = pageQueryOptions.extractKeysetBoundary(documents.get(documents.size() - 1));
+        if (keysetBoundary != null) {
+            wayPoint.setKeysetBoundary(pagination.getPageNumber() + 1, keysetBoundary);
+        }
+    }
+
     private void initActions(JsonTreeTableView resultTreeTableView) {
         resultTreeTableView.addMouseListener(new MouseAdapter() {
             @Override
@@ -373,6 +723,9 @@ public class MongoPanel extends JPanel implements Disposable {
 
     @Override
     public void dispose() {
+        cancelTotalDocumentsCount();
+        final MongoCollectionResult results = currentResults;
+        ApplicationManager.getApplication().executeOnPooledThread(results::close);
         resultPanel.dispose();
     }
 
@@ -407,6 +760,19 @@ public class MongoPanel extends JPanel implements Disposable {
         executeQuery(true, navigation.getCurrentWayPoint());
     }
 
+    public boolean isTableViewMode() {
+        return MongoResultPanel.ViewMode.TABLE.equals(resultPanel.getCurrentViewMode());
+    }
+
+    public boolean isFlattenNestedDocuments() {
+        return resultPanel.isFlattenNestedDocuments();
+    }
+
+    public void setFlattenNestedDocuments(boolean flattenNestedDocuments) {
+        resultPanel.setFlattenNestedDocuments(flattenNestedDocuments);
+        executeQuery(true, navigation.getCurrentWayPoint());
+    }
+
     public ServerConfiguration getConfiguration() {
         return configuration;
     }
@@ -34,12 +34,16 @@ import org.codinjutsu.tools.mongo.view.edition.MongoEditionDialog;
 import org.codinjutsu.tools.mongo.view.model.*;
 import org.codinjutsu.tools.mongo.view.nodedescriptor.MongoKeyValueDescriptor;
 import org.codinjutsu.tools.mongo.view.nodedescriptor.MongoNodeDescriptor;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
 import java.awt.*;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -53,8 +57,12 @@ public class MongoResultPanel extends JPanel implements Disposable {
     private final JPanel resultTreePanel;
 
     JsonTreeTableView resultTreeTableView;
+    private JsonTableView resultTableView;
+    private Runnable scrolledToEndListener = () -> {
+    };
 
     private ViewMode currentViewMode = ViewMode.TREE;
+    private boolean flattenNestedDocuments = false;
     private ActionCallback actionCallback;
 
 
@@ -86,17 +94,44 @@ public class MongoResultPanel extends JPanel implements Disposable {
     }
 
     void updateResultView(MongoCollectionResult mongoCollectionResult, Pagination pagination) {
+        updateResultView(mongoCollectionResult, pagination, null);
+    }
+
+    /**
+     * @param preparedView what {@link #prepareResultView} computed in background, or null to compute everything here
+     */
+    void updateResultView(MongoCollectionResult mongoCollectionResult, Pagination pagination, @Nullable PreparedResultView preparedView) {
         if (ViewMode.TREE.equals(currentViewMode)) {
-            updateResultTreeTable(mongoCollectionResult, pagination);
+            updateResultTreeTable(mongoCollectionResult, pagination, preparedView);
         } else {
-            updateResultTable(mongoCollectionResult);
+            updateResultTable(mongoCollectionResult, preparedView);
+        }
+    }
+
+    /**
+     * Builds the nodes of the tree view, or finds the columns of the table view, of the result.
+     * It does not touch the view, so it can be called off the EDT.
+     */
+    PreparedResultView prepareResultView(MongoCollectionResult mongoCollectionResult, Pagination pagination) {
+        // a snapshot, as documents may be appended on the EDT in the meantime
+        List<Document> allDocuments = new ArrayList<>(mongoCollectionResult.getDocuments());
+        if (ViewMode.TREE.equals(currentViewMode)) {
+            List<Document> documents = new ArrayList<>(extractDocuments(pagination, mongoCollectionResult.isPage(), allDocuments));
+            return new PreparedResultView(ViewMode.TREE, documents.size(), flattenNestedDocuments,
+                    JsonTreeUtils.buildJsonTreeInParallel(mongoCollectionResult.getCollectionName(), documents, pagination.getStartIndex()),
+                    null);
         }
+
+        return new PreparedResultView(ViewMode.TABLE, allDocuments.size(), flattenNestedDocuments,
+                null,
+                JsonTableUtils.extractColumnNames(allDocuments, flattenNestedDocuments));
     }
 
-    private void updateResultTreeTable(MongoCollectionResult mongoCollectionResult, Pagination pagination) {
-        resultTreeTableView = new JsonTreeTableView(JsonTreeUtils.buildJsonTree(mongoCollectionResult.getCollectionName(),
-                extractDocuments(pagination, mongoCollectionResult.getDocuments()), pagination.getStartIndex()),
-                JsonTreeTableView.COLUMNS_FOR_READING);
+    private void updateResultTreeTable(MongoCollectionResult mongoCollectionResult, Pagination pagination, @Nullable PreparedResultView preparedView) {
+        List<Document> documents = extractDocuments(pagination, mongoCollectionResult.isPage(), mongoCollectionResult.getDocuments());
+        JsonTreeNode resultTree = isUpToDate(preparedView, ViewMode.TREE, documents) ? preparedView.resultTree :
+                (JsonTreeNode) JsonTreeUtils.buildJsonTree(mongoCollectionResult.getCollectionName(), documents, pagination.getStartIndex());
+        resultTreeTableView = new JsonTreeTableView(resultTree, JsonTreeTableView.COLUMNS_FOR_READING);
 
         resultTreeTableView.setName("resultTreeTable");
 
@@ -105,30 +140,88 @@ public class MongoResultPanel extends JPanel implements Disposable {
         UIUtil.invokeAndWaitIfNeeded((Runnable)() -> TreeUtil.expand(resultTreeTableView.getTree(), 2));
     }
 
-    private static List<Document> extractDocuments(Pagination pagination, List<Document> documents) {
-        if (NbPerPage.ALL.equals(pagination.getNbPerPage())) {
+    private static List<Document> extractDocuments(Pagination pagination, boolean page, List<Document> documents) {
+        if (page || NbPerPage.ALL.equals(pagination.getNbPerPage())) {
             return documents;
         }
         if (pagination.getNbDocumentsPerPage() >= documents.size()) {
             return documents;
         }
 
-        int startIndex = pagination.getStartIndex();
-        int endIndex = startIndex + pagination.getNbDocumentsPerPage();
+        int startIndex = Math.min(pagination.getStartIndex(), documents.size());
+        int endIndex = Math.min(startIndex + pagination.getNbDocumentsPerPage(), documents.size());
 
-        return IntStream.range(startIndex, endIndex)
-                .mapToObj(documents::get)
-                .collect(Collectors.toCollection(LinkedList::new));
+        return documents.subList(startIndex, endIndex);
     }
 
-    private void updateResultTable(MongoCollectionResult mongoCollectionResult) {
-        displayResult(new JsonTableView(JsonTableUtils.buildJsonTable(mongoCollectionResult)));
+    private void updateResultTable(MongoCollectionResult mongoCollectionResult, @Nullable PreparedResultView preparedView) {
+        List<Document> documents = mongoCollectionResult.getDocuments();
+        Set<List<String>> columnNames = isUpToDate(preparedView, ViewMode.TABLE, documents) ? preparedView.columnNames :
+                JsonTableUtils.extractColumnNames(documents, flattenNestedDocuments);
+        resultTableView = new JsonTableView(JsonTableUtils.buildJsonTable(documents, columnNames));
+        displayResult(resultTableView);
+    }
+
+    /**
+     * @return false when documents were appended, or the view was changed, since the view was prepared in background
+     */
+    private boolean isUpToDate(@Nullable PreparedResultView preparedView, ViewMode viewMode, List<Document> documents) {
+        return preparedView != null
+                && preparedView.viewMode == viewMode
+                && preparedView.flattenNestedDocuments == flattenNestedDocuments
+                && preparedView.documentCount == documents.size();
+    }
+
+    /**
+     * @return true when the view shows every fetched document, so that a new batch can be added at its end
+     */
+    boolean canAppendDocuments(MongoCollectionResult mongoCollectionResult, Pagination pagination) {
+        if (ViewMode.TABLE.equals(currentViewMode)) {
+            return resultTableView != null && resultTableView.getListTableModel() != null;
+        }
+        return resultTreeTableView != null
+                && !mongoCollectionResult.isPage()
+                && NbPerPage.ALL.equals(pagination.getNbPerPage());
+    }
+
+    @SuppressWarnings("unchecked")
+    void appendDocuments(List<Document> documents, int startIndex) {
+        if (ViewMode.TABLE.equals(currentViewMode)) {
+            // the columns of a batch are found here, their number is bounded by the batch size and the column limit
+            JsonTableUtils.addColumns(resultTableView.getListTableModel(), documents, flattenNestedDocuments);
+            resultTableView.getListTableModel().addRows(documents);
+            return;
+        }
+
+        TreeTableTree tree = resultTreeTableView.getTree();
+        JsonTreeNode rootNode = (JsonTreeNode) tree.getModel().getRoot();
+        int firstChildIndex = rootNode.getChildCount();
+        JsonTreeUtils.addDocuments(rootNode, documents, startIndex);
+
+        int[] childIndices = IntStream.range(firstChildIndex, rootNode.getChildCount()).toArray();
+        ((DefaultTreeModel) resultTreeTableView.getTableModel()).nodesWereInserted(rootNode, childIndices);
+        for (int childIndex : childIndices) {
+            tree.expandPath(new TreePath(((JsonTreeNode) rootNode.getChildAt(childIndex)).getPath()));
+        }
+    }
+
+    void setScrolledToEndListener(Runnable scrolledToEndListener) {
+        this.scrolledToEndListener = scrolledToEndListener;
     }
 
     private void displayResult(JComponent tableView) {
+        JBScrollPane scrollPane = new JBScrollPane(tableView);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(event -> {
+            BoundedRangeModel model = ((JScrollBar) event.getAdjustable()).getModel();
+            boolean scrollable = model.getMaximum() > model.getExtent();
+            if (scrollable && !event.getValueIsAdjusting() && model.getValue() + model.getExtent() >= model.getMaximum()) {
+                scrolledToEndListener.run();
+            }
+        });
+
         resultTreePanel.invalidate();
         resultTreePanel.removeAll();
-        resultTreePanel.add(new JBScrollPane(tableView));
+        resultTreePanel.add(scrollPane);
         resultTreePanel.validate();
     }
 
@@ -287,6 +380,7 @@ public class MongoResultPanel extends JPanel implements Disposable {
     @Override
     public void dispose() {
         resultTreeTableView = null;
+        resultTableView = null;
     }
 
     void setCurrentViewMode(ViewMode viewMode) {
@@ -297,6 +391,14 @@ public class MongoResultPanel extends JPanel implements Disposable {
         return currentViewMode;
     }
 
+    void setFlattenNestedDocuments(boolean flattenNestedDocuments) {
+        this.flattenNestedDocuments = flattenNestedDocuments;
+    }
+
+    boolean isFlattenNestedDocuments() {
+        return flattenNestedDocuments;
+    }
+
     public Document getReferencedDocument(DBRef selectedDBRef) {
         return mongoDocumentOperations.getReferenceDocument(
                 selectedDBRef.getCollectionName(), selectedDBRef.getId(), selectedDBRef.getDatabaseName()
@@ -325,4 +427,21 @@ public class MongoResultPanel extends JPanel implements Disposable {
         TREE, TABLE
     }
 
+    static class PreparedResultView {
+
+        private final ViewMode viewMode;
+        private final int documentCount;
+        private final boolean flattenNestedDocuments;
+        private final JsonTreeNode resultTree;
+        private final Set<List<String>> columnNames;
+
+        private PreparedResultView(ViewMode viewMode, int documentCount, boolean flattenNestedDocuments,
+                                   JsonTreeNode resultTree, Set<List<String>> columnNames) {
+            this.viewMode = viewMode;
+            this.documentCount = documentCount;
+            this.flattenNestedDocuments = flattenNestedDocuments;
+            this.resultTree = resultTree;
+            this.columnNames = columnNames;
+        }
+    }
 }
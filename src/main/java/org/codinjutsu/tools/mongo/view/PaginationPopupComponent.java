@@ -30,6 +30,7 @@ import com.intellij.util.ui.JBUI;
 import com.intellij.util.ui.UIUtil;
 import org.codinjutsu.tools.mongo.view.model.NbPerPage;
 import org.codinjutsu.tools.mongo.view.model.Pagination;
+import org.codinjutsu.tools.mongo.view.model.PaginationMode;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
@@ -86,6 +87,9 @@ class PaginationPopupComponent extends JPanel {
 
     private String getCurrentText() {
         NbPerPage nbPerPage = pagination.getNbPerPage();
+        if (pagination.isServerSide()) {
+            return getText(nbPerPage) + " (server)";
+        }
         return getText(nbPerPage);
     }
 
@@ -105,6 +109,11 @@ class PaginationPopupComponent extends JPanel {
             actionGroup.add(new NbPerPageAction(nbPerPage));
         }
 
+        actionGroup.addSeparator();
+        for (PaginationMode paginationMode : PaginationMode.values()) {
+            actionGroup.add(new PaginationModeAction(paginationMode));
+        }
+
         return actionGroup;
     }
 
@@ -201,4 +210,24 @@ class PaginationPopupComponent extends JPanel {
         }
     }
 
+    private class PaginationModeAction extends DumbAwareAction {
+
+        private final PaginationMode paginationMode;
+
+        PaginationModeAction(PaginationMode paginationMode) {
+            super(paginationMode.label);
+            this.paginationMode = paginationMode;
+        }
+
+        @Override
+        public void actionPerformed(@NotNull AnActionEvent e) {
+            pagination.setPaginationMode(paginationMode);
+        }
+
+        @Override
+        public void update(@NotNull AnActionEvent e) {
+            e.getPresentation().setIcon(paginationMode.equals(pagination.getPaginationMode()) ? AllIcons.Actions.Checked : null);
+        }
+    }
+
 }
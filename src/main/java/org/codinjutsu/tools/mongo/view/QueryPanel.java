@@ -35,7 +35,9 @@ import com.intellij.openapi.ui.popup.Balloon;
 import com.intellij.openapi.ui.popup.JBPopupFactory;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.wm.IdeFocusManager;
+import com.intellij.ui.NumberDocument;
 import com.intellij.ui.awt.RelativePoint;
+import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.panels.NonOpaquePanel;
 import com.intellij.util.Alarm;
 import com.intellij.util.ui.UIUtil;
@@ -163,6 +165,8 @@ public class QueryPanel extends JPanel implements Disposable {
 
         private final Editor editor;
         private final OperatorCompletionAction operatorCompletionAction;
+        private final JBCheckBox allowDiskUseCheckBox = new JBCheckBox("Allow disk use");
+        private final JTextField maxTimeField = new JTextField();
 
         private AggregatorPanel() {
             this.editor = createEditor();
@@ -173,6 +177,7 @@ public class QueryPanel extends JPanel implements Disposable {
             headPanel.add(operatorLabel, BorderLayout.WEST);
             add(headPanel, BorderLayout.NORTH);
             add(this.editor.getComponent(), BorderLayout.CENTER);
+            add(createOptionsPanel(), BorderLayout.SOUTH);
 
             this.operatorCompletionAction = new OperatorCompletionAction(project, editor);
 
@@ -180,6 +185,20 @@ public class QueryPanel extends JPanel implements Disposable {
             myUpdateAlarm.setActivationComponent(this.editor.getComponent());
         }
 
+        private JPanel createOptionsPanel() {
+            maxTimeField.setColumns(6);
+            maxTimeField.setDocument(new NumberDocument());
+
+            NonOpaquePanel maxTimePanel = new NonOpaquePanel();
+            maxTimePanel.add(new JLabel("Max time (ms):"), BorderLayout.WEST);
+            maxTimePanel.add(maxTimeField, BorderLayout.CENTER);
+
+            NonOpaquePanel optionsPanel = new NonOpaquePanel();
+            optionsPanel.add(allowDiskUseCheckBox, BorderLayout.WEST);
+            optionsPanel.add(maxTimePanel, BorderLayout.EAST);
+            return optionsPanel;
+        }
+
         @Override
         public void validateQuery() {
             try {
@@ -210,6 +229,12 @@ public class QueryPanel extends JPanel implements Disposable {
                 mongoQueryOptions.setResultLimit(Integer.parseInt(rowLimit));
             }
 
+            mongoQueryOptions.setAllowDiskUse(allowDiskUseCheckBox.isSelected());
+            String maxTime = maxTimeField.getText();
+            if (StringUtils.isNotBlank(maxTime)) {
+                mongoQueryOptions.setMaxTimeInMillis(Long.parseLong(maxTime));
+            }
+
             return mongoQueryOptions;
         }
 
@@ -90,6 +90,7 @@ public class ServerConfigurationPanel extends JPanel {
     private TextFieldWithBrowseButton privateKeyPathField;
     private JLabel passLabel;
     private JTextField defaultRowLimitTextField;
+    private JTextField defaultMaxTimeTextField;
 
     private final MongoManager mongoManager;
 
@@ -130,6 +131,11 @@ public class ServerConfigurationPanel extends JPanel {
         defaultRowLimitTextField.setColumns(7);
         defaultRowLimitTextField.setDocument(new NumberDocument());
 
+        defaultMaxTimeTextField.setName("defaultMaxTimeTextField");
+        defaultMaxTimeTextField.setColumns(7);
+        defaultMaxTimeTextField.setDocument(new NumberDocument());
+        defaultMaxTimeTextField.setToolTipText("Queries running longer on the server are aborted, 0 means no limit");
+
         testConnectionButton.setName("testConnection");
 
         readPreferenceComboBox.setModel(new DefaultComboBoxModel<>(
@@ -252,6 +258,7 @@ public class ServerConfigurationPanel extends JPanel {
         configuration.setShellArgumentsLine(getShellArgumentsLine());
         configuration.setShellWorkingDir(getShellWorkingDir());
         configuration.setDefaultRowLimit(getDefaultRowLimit());
+        configuration.setDefaultMaxTimeInMillis(getDefaultMaxTime());
 
         configuration.setAuthenticationMechanism(getAuthenticationMecanism());
 
@@ -306,6 +313,7 @@ public class ServerConfigurationPanel extends JPanel {
         shellArgumentsLineField.setText(configuration.getShellArgumentsLine());
         shellWorkingDirField.setText(configuration.getShellWorkingDir());
         defaultRowLimitTextField.setText(Integer.toString(configuration.getDefaultRowLimit()));
+        defaultMaxTimeTextField.setText(Integer.toString(configuration.getDefaultMaxTimeInMillis()));
 
 
         SshTunnelingConfiguration sshTunnelingConfiguration = configuration.getSshTunnelingConfiguration();
@@ -480,6 +488,14 @@ public class ServerConfigurationPanel extends JPanel {
         return ServerConfiguration.DEFAULT_ROW_LIMIT;
     }
 
+    private Integer getDefaultMaxTime() {
+        String defaultMaxTime = defaultMaxTimeTextField.getText();
+        if (StringUtils.isNotBlank(defaultMaxTime)) {
+            return Integer.parseInt(defaultMaxTime);
+        }
+        return ServerConfiguration.DEFAULT_MAX_TIME_IN_MILLIS;
+    }
+
     private void createUIComponents() {
         shellWorkingDirField = createShellWorkingDirField();
         privateKeyPathField = createPrivateKeyField();
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.view.action.explorer;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAware;
+import org.codinjutsu.tools.mongo.model.MongoCollection;
+import org.codinjutsu.tools.mongo.view.MongoExplorerPanel;
+import org.codinjutsu.tools.mongo.view.dataexport.DataExportDialog;
+
+public class DataExportAction extends AnAction implements DumbAware {
+
+    private final MongoExplorerPanel mongoExplorerPanel;
+
+    public DataExportAction(MongoExplorerPanel mongoExplorerPanel) {
+        super("Export data", "Export the documents of the collection to a file", AllIcons.Actions.Export);
+        this.mongoExplorerPanel = mongoExplorerPanel;
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        MongoCollection mongoCollection = mongoExplorerPanel.getSelectedCollection();
+        if (mongoCollection == null) {
+            return;
+        }
+
+        DataExportDialog dataExportDialog = DataExportDialog.create(event.getProject(), mongoCollection.getName() + ".json");
+        dataExportDialog.show();
+
+        if (!dataExportDialog.isOK()) {
+            return;
+        }
+
+        mongoExplorerPanel.exportCollectionData(mongoCollection, dataExportDialog.getExportOptions());
+    }
+
+    @Override
+    public void update(AnActionEvent event) {
+        event.getPresentation().setVisible(mongoExplorerPanel.getSelectedCollection() != null);
+    }
+}
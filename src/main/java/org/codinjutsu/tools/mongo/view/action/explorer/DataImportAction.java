@@ -46,7 +46,7 @@ public class DataImportAction extends AnAction implements DumbAware {
             return;
         }
 
-        mongoExplorerPanel.importDataFile(mongoCollection, dataImportDialog.getDocumentToImportFilePath(), dataImportDialog.replaceAllDocuments());
+        mongoExplorerPanel.importDataFile(mongoCollection, dataImportDialog.getDocumentToImportFilePath(), dataImportDialog.getImportOptions());
     }
 
     @Override
@@ -52,6 +52,7 @@ public class EditServerAction extends AnAction implements DumbAware {
         if (!dialog.isOK()) {
             return;
         }
+        mongoExplorerPanel.getMongoManager().disconnect(configuration);
         if (mongoServer.isConnected()) {
             mongoExplorerPanel.openServer(mongoServer);
         }
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.view.action.explorer;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAware;
+import org.codinjutsu.tools.mongo.model.MongoDatabase;
+import org.codinjutsu.tools.mongo.view.MongoExplorerPanel;
+
+public class ViewCollectionsStatsAction extends AnAction implements DumbAware {
+
+    private final MongoExplorerPanel mongoExplorerPanel;
+
+    public ViewCollectionsStatsAction(MongoExplorerPanel mongoExplorerPanel) {
+        super("View collection statistics", "Compare the statistics of all the collections of this database", null);
+        this.mongoExplorerPanel = mongoExplorerPanel;
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        MongoDatabase mongoDatabase = mongoExplorerPanel.getSelectedDatabase();
+        if (mongoDatabase == null) {
+            return;
+        }
+        mongoExplorerPanel.showCollectionsStats(mongoDatabase);
+    }
+
+    @Override
+    public void update(AnActionEvent event) {
+        event.getPresentation().setVisible(mongoExplorerPanel.getSelectedDatabase() != null);
+    }
+}
@@ -20,7 +20,6 @@ import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.project.DumbAware;
-import org.codinjutsu.tools.mongo.view.model.NbPerPage;
 import org.codinjutsu.tools.mongo.view.model.Pagination;
 
 import javax.swing.*;
@@ -47,10 +46,7 @@ public abstract class PaginationAction extends AnAction implements DumbAware {
 
         @Override
         public void update(AnActionEvent event) {
-            event.getPresentation().setEnabled(
-                    !NbPerPage.ALL.equals(pagination.getNbPerPage())
-                            && pagination.getPageNumber() < pagination.getTotalPageNumber()
-            );
+            event.getPresentation().setEnabled(pagination.hasNextPage());
         }
     }
 
@@ -67,10 +63,7 @@ public abstract class PaginationAction extends AnAction implements DumbAware {
 
         @Override
         public void update(AnActionEvent event) {
-            event.getPresentation().setEnabled(
-                    !NbPerPage.ALL.equals(pagination.getNbPerPage())
-                            && pagination.getStartIndex() > 0
-            );
+            event.getPresentation().setEnabled(pagination.hasPreviousPage());
         }
     }
 }
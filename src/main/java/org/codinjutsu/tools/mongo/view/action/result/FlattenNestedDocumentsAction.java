@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.view.action.result;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.DumbAware;
+import org.codinjutsu.tools.mongo.view.MongoPanel;
+import org.jetbrains.annotations.NotNull;
+
+public class FlattenNestedDocumentsAction extends ToggleAction implements DumbAware {
+
+    private final MongoPanel mongoPanel;
+
+    public FlattenNestedDocumentsAction(MongoPanel mongoPanel) {
+        super("Flatten nested documents", "Show each field of the nested documents in its own column", AllIcons.Nodes.DataColumn);
+        this.mongoPanel = mongoPanel;
+    }
+
+    @Override
+    public boolean isSelected(AnActionEvent event) {
+        return mongoPanel.isFlattenNestedDocuments();
+    }
+
+    @Override
+    public void setSelected(AnActionEvent event, boolean flattenNestedDocuments) {
+        mongoPanel.setFlattenNestedDocuments(flattenNestedDocuments);
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent event) {
+        super.update(event);
+        event.getPresentation().setVisible(mongoPanel.isTableViewMode());
+    }
+}
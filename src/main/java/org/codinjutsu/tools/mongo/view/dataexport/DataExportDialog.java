@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.view.dataexport;
+
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.TextFieldWithBrowseButton;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import org.apache.commons.lang.StringUtils;
+import org.codinjutsu.tools.mongo.model.ExportFormat;
+import org.codinjutsu.tools.mongo.model.MongoExportOptions;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.io.File;
+
+public class DataExportDialog extends DialogWrapper {
+
+    private final Project project;
+    private final String defaultFileName;
+    private JPanel rootPanel;
+    private TextFieldWithBrowseButton exportFileTextField;
+    private JComboBox<ExportFormat> formatComboBox;
+    private JCheckBox gzipCheckBox;
+    private JTextField batchSizeTextField;
+
+    public static DataExportDialog create(Project project, String defaultFileName) {
+        DataExportDialog dataExportDialog = new DataExportDialog(project, defaultFileName);
+        dataExportDialog.init();
+        dataExportDialog.setTitle("Export Data to File");
+        return dataExportDialog;
+    }
+
+    private DataExportDialog(Project project, String defaultFileName) {
+        super(project, false);
+        this.project = project;
+        this.defaultFileName = defaultFileName;
+    }
+
+    @Override
+    protected void init() {
+        formatComboBox.setModel(new DefaultComboBoxModel<>(ExportFormat.values()));
+        batchSizeTextField.setText(String.valueOf(MongoExportOptions.DEFAULT_BATCH_SIZE));
+        super.init();
+    }
+
+    @Nullable
+    @Override
+    protected ValidationInfo doValidate() {
+        String filePath = exportFileTextField.getText();
+        if (StringUtils.isBlank(filePath)) {
+            return new ValidationInfo("File to export to should be set", exportFileTextField);
+        }
+        File parentDirectory = new File(filePath).getAbsoluteFile().getParentFile();
+        if (parentDirectory == null || !parentDirectory.isDirectory()) {
+            return new ValidationInfo("Directory of the file does not exist", exportFileTextField);
+        }
+
+        String batchSize = batchSizeTextField.getText();
+        if (StringUtils.isBlank(batchSize) || !StringUtils.isNumeric(batchSize) || batchSize.length() > 9 || Integer.parseInt(batchSize) == 0) {
+            return new ValidationInfo("Batch size should be a positive number", batchSizeTextField);
+        }
+
+        return super.doValidate();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        return rootPanel;
+    }
+
+    public MongoExportOptions getExportOptions() {
+        MongoExportOptions exportOptions = new MongoExportOptions();
+        exportOptions.setFilePath(exportFileTextField.getText());
+        exportOptions.setFormat((ExportFormat) formatComboBox.getSelectedItem());
+        exportOptions.setGzip(gzipCheckBox.isSelected());
+        exportOptions.setBatchSize(Integer.parseInt(batchSizeTextField.getText()));
+        return exportOptions;
+    }
+
+    private void createUIComponents() {
+        exportFileTextField = new TextFieldWithBrowseButton();
+        exportFileTextField.addActionListener(e -> {
+            VirtualFileWrapper fileWrapper = FileChooserFactory.getInstance()
+                    .createSaveFileDialog(new FileSaverDescriptor("Export Data", "Choose the file to export the documents to"), project)
+                    .save(null, defaultFileName);
+            if (fileWrapper != null) {
+                exportFileTextField.setText(fileWrapper.getFile().getPath());
+            }
+        });
+    }
+}
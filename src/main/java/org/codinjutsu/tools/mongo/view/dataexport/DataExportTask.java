@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.view.dataexport;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import org.codinjutsu.tools.mongo.ServerConfiguration;
+import org.codinjutsu.tools.mongo.logic.ConfigurationException;
+import org.codinjutsu.tools.mongo.logic.DocumentExportWriter;
+import org.codinjutsu.tools.mongo.logic.MongoManager;
+import org.codinjutsu.tools.mongo.logic.Notifier;
+import org.codinjutsu.tools.mongo.model.MongoCollection;
+import org.codinjutsu.tools.mongo.model.MongoExportOptions;
+import org.codinjutsu.tools.mongo.model.MongoQueryOptions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Exports a collection or the result of a query to a file. The file is removed when the export does not complete.
+ */
+public class DataExportTask extends Task.Backgroundable {
+
+    private final MongoManager mongoManager;
+    private final Notifier notifier;
+    private final MongoCollection mongoCollection;
+    private final MongoQueryOptions queryOptions;
+    private final MongoExportOptions exportOptions;
+
+    public DataExportTask(Project project, MongoManager mongoManager, MongoCollection mongoCollection,
+                          @Nullable MongoQueryOptions queryOptions, MongoExportOptions exportOptions) {
+        super(project, "Exporting data from " + mongoCollection.getName(), true);
+        this.mongoManager = mongoManager;
+        this.notifier = Notifier.getInstance(project);
+        this.mongoCollection = mongoCollection;
+        this.queryOptions = queryOptions;
+        this.exportOptions = exportOptions;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        ServerConfiguration configuration = mongoCollection
+                .getParentDatabase()
+                .getParentServer()
+                .getConfiguration();
+
+        File file = new File(exportOptions.getFilePath());
+        boolean exported = false;
+        try {
+            long exportedDocuments;
+            try (DocumentExportWriter documentWriter = DocumentExportWriter.open(file, exportOptions)) {
+                exportedDocuments = mongoManager.exportData(configuration, mongoCollection, queryOptions, exportOptions, documentWriter, indicator);
+            }
+            exported = true;
+            notifier.notifyInfo(String.format("%,d documents exported from %s to %s", exportedDocuments, mongoCollection.getName(), file.getPath()));
+        } catch (IOException | UncheckedIOException ex) {
+            notifier.notifyError("Error when writing file: " + ex.getMessage());
+        } catch (ConfigurationException ex) {
+            notifier.notifyError("Error when exporting data from Mongo: " + ex.getMessage());
+        } finally {
+            if (!exported) {
+                FileUtil.delete(file);
+            }
+        }
+    }
+}
@@ -22,6 +22,8 @@ import com.intellij.openapi.ui.*;
 import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.mongo.model.MongoCollection;
 import org.codinjutsu.tools.mongo.model.MongoDatabase;
+import org.codinjutsu.tools.mongo.model.MongoImportOptions;
+import org.codinjutsu.tools.mongo.model.ReplaceAllMode;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
@@ -29,6 +31,8 @@ import java.io.File;
 
 public class DataImportDialog extends DialogWrapper {
 
+    private static final int MAX_WRITER_COUNT = 16;
+
     private final MongoCollection mongoCollection;
     private TextFieldWithBrowseButton documentToImportTextField;
     private JLabel targetServerLabel;
@@ -36,6 +40,16 @@ public class DataImportDialog extends DialogWrapper {
     private JLabel targetCollectionLabel;
     private JPanel rootPanel;
     private JCheckBox replaceAllContentCheckBox;
+    private JComboBox<ReplaceAllMode> replaceAllModeComboBox;
+    private JTextField maxDocumentsPerSecondTextField;
+    private JCheckBox upsertCheckBox;
+    private JTextField upsertKeyTextField;
+    private JTextField batchSizeTextField;
+    private JTextField writerCountTextField;
+    private JTextField writeConcernTextField;
+    private JCheckBox journalCheckBox;
+    private JCheckBox orderedCheckBox;
+    private JCheckBox bypassDocumentValidationCheckBox;
 
     public static DataImportDialog create(Project project, MongoCollection mongoCollection) {
         DataImportDialog dataImportDialog = new DataImportDialog(project, mongoCollection);
@@ -56,6 +70,12 @@ public class DataImportDialog extends DialogWrapper {
     }
 
     private void initLabels() {
+        replaceAllModeComboBox.setModel(new DefaultComboBoxModel<>(ReplaceAllMode.values()));
+        replaceAllContentCheckBox.addItemListener(e -> replaceAllModeComboBox.setEnabled(replaceAllContentCheckBox.isSelected()));
+        batchSizeTextField.setText(String.valueOf(MongoImportOptions.DEFAULT_BATCH_SIZE));
+        writerCountTextField.setText("1");
+        upsertCheckBox.addItemListener(e -> upsertKeyTextField.setEnabled(upsertCheckBox.isSelected()));
+
         MongoDatabase parentDatabase = mongoCollection.getParentDatabase();
         targetCollectionLabel.setText(mongoCollection.getName());
         targetDatabaseLabel.setText(parentDatabase.getName());
@@ -75,6 +95,50 @@ public class DataImportDialog extends DialogWrapper {
             return new ValidationInfo("Data file does not exist", rootPanel);
         }
 
+        if (upsertCheckBox.isSelected()) {
+            if (replaceAllContentCheckBox.isSelected()) {
+                return new ValidationInfo("Documents cannot be upserted when replacing all content", upsertCheckBox);
+            }
+            if (StringUtils.isBlank(upsertKeyTextField.getText())) {
+                return new ValidationInfo("Upsert key should be set", upsertKeyTextField);
+            }
+        }
+
+        String batchSize = batchSizeTextField.getText();
+        if (StringUtils.isBlank(batchSize) || !StringUtils.isNumeric(batchSize) || batchSize.length() > 9 || Integer.parseInt(batchSize) == 0) {
+            return new ValidationInfo("Batch size should be a positive number", batchSizeTextField);
+        }
+
+        String maxDocumentsPerSecond = maxDocumentsPerSecondTextField.getText();
+        if (StringUtils.isNotBlank(maxDocumentsPerSecond) && (!StringUtils.isNumeric(maxDocumentsPerSecond) || maxDocumentsPerSecond.length() > 9)) {
+            return new ValidationInfo("Max documents per second should be a number", maxDocumentsPerSecondTextField);
+        }
+
+        String writeConcern = StringUtils.trim(writeConcernTextField.getText());
+        if (StringUtils.isNumeric(writeConcern) && StringUtils.isNotEmpty(writeConcern)) {
+            if (writeConcern.length() > 2) {
+                return new ValidationInfo("Write concern should be a number of members or a tag", writeConcernTextField);
+            }
+            if (Integer.parseInt(writeConcern) == 0 && journalCheckBox.isSelected()) {
+                return new ValidationInfo("The journal cannot be waited for without acknowledgement (w=0)", journalCheckBox);
+            }
+        }
+
+        String writerCount = writerCountTextField.getText();
+        if (StringUtils.isBlank(writerCount) || !StringUtils.isNumeric(writerCount) || writerCount.length() > 2
+                || Integer.parseInt(writerCount) == 0 || Integer.parseInt(writerCount) > MAX_WRITER_COUNT) {
+            return new ValidationInfo("Writers should be a number between 1 and " + MAX_WRITER_COUNT, writerCountTextField);
+        }
+        if (Integer.parseInt(writerCount) > 1) {
+            // several writers send their batches in any order, and two upserts on the same key could race
+            if (orderedCheckBox.isSelected()) {
+                return new ValidationInfo("Ordered inserts need a single writer", writerCountTextField);
+            }
+            if (upsertCheckBox.isSelected()) {
+                return new ValidationInfo("Upserts need a single writer", writerCountTextField);
+            }
+        }
+
         return super.doValidate();
     }
 
@@ -88,8 +152,23 @@ public class DataImportDialog extends DialogWrapper {
         return documentToImportTextField.getText();
     }
 
-    public boolean replaceAllDocuments() {
-        return replaceAllContentCheckBox.isSelected();
+    public MongoImportOptions getImportOptions() {
+        MongoImportOptions importOptions = new MongoImportOptions();
+        importOptions.setReplaceAllDocuments(replaceAllContentCheckBox.isSelected());
+        importOptions.setReplaceAllMode((ReplaceAllMode) replaceAllModeComboBox.getSelectedItem());
+        if (StringUtils.isNotBlank(maxDocumentsPerSecondTextField.getText())) {
+            importOptions.setMaxDocumentsPerSecond(Integer.parseInt(maxDocumentsPerSecondTextField.getText()));
+        }
+        if (upsertCheckBox.isSelected()) {
+            importOptions.setUpsertKey(upsertKeyTextField.getText().trim());
+        }
+        importOptions.setBatchSize(Integer.parseInt(batchSizeTextField.getText()));
+        importOptions.setWriterCount(Integer.parseInt(writerCountTextField.getText()));
+        importOptions.setWriteConcern(StringUtils.trimToNull(writeConcernTextField.getText()));
+        importOptions.setJournal(journalCheckBox.isSelected());
+        importOptions.setOrdered(orderedCheckBox.isSelected());
+        importOptions.setBypassDocumentValidation(bypassDocumentValidationCheckBox.isSelected());
+        return importOptions;
     }
 
     private void createUIComponents() {
@@ -24,54 +24,135 @@ import org.codinjutsu.tools.mongo.view.renderer.MongoTableCellRenderer;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.table.TableCellRenderer;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 public class JsonTableUtils {
 
+    /**
+     * Beyond this, the fields of the documents are not shown, so that very wide schemas remain usable.
+     */
+    static final int MAX_COLUMNS = 100;
 
     public static ListTableModel buildJsonTable(MongoCollectionResult mongoCollectionResult) {
         List<Document> resultObjects = mongoCollectionResult.getDocuments();
-        if (resultObjects.isEmpty()) {
+        return buildJsonTable(resultObjects, extractColumnNames(resultObjects, false));
+    }
+
+    public static ListTableModel buildJsonTable(List<Document> documents, Set<List<String>> columnNames) {
+        if (documents.isEmpty()) {
             return null;
         }
 
-        ColumnInfo[] columnInfos = extractColumnNames(resultObjects.get(0));
+        MongoTableCellRenderer cellRenderer = new MongoTableCellRenderer();
+        // copied so that the documents loaded afterwards can be appended to the model as new rows
+        ListTableModel<Document> tableModel = new ListTableModel<>(createColumnInfos(columnNames, cellRenderer), new ArrayList<>(documents));
+        // the texts are cached by cell, so any change of the rows or of the columns outdates them
+        tableModel.addTableModelListener(event -> cellRenderer.clearCache());
+        return tableModel;
+    }
+
+    /**
+     * Adds the columns of the fields of the documents that are missing from the model, e.g. once a new batch is appended.
+     */
+    public static void addColumns(ListTableModel tableModel, List<Document> documents, boolean flattenNestedDocuments) {
+        ColumnInfo[] columnInfos = tableModel.getColumnInfos();
+        Set<List<String>> columnNames = new LinkedHashSet<>();
+        for (ColumnInfo columnInfo : columnInfos) {
+            columnNames.add(((TableColumnInfo) columnInfo).path);
+        }
+        int columnCount = columnNames.size();
+        collectColumnNames(columnNames, documents, flattenNestedDocuments);
+        if (columnNames.size() != columnCount) {
+            MongoTableCellRenderer cellRenderer;
+            if (columnInfos.length > 0) {
+                cellRenderer = ((TableColumnInfo) columnInfos[0]).cellRenderer;
+            } else {
+                cellRenderer = new MongoTableCellRenderer();
+                tableModel.addTableModelListener(event -> cellRenderer.clearCache());
+            }
+            tableModel.setColumnInfos(createColumnInfos(columnNames, cellRenderer));
+        }
+    }
 
-        return new ListTableModel<>(columnInfos, resultObjects);
+    /**
+     * @return the union of the fields of all the documents, in the order they are met and up to {@link #MAX_COLUMNS},
+     * each field being the path to a leaf of the nested documents when they are flattened
+     */
+    public static Set<List<String>> extractColumnNames(List<Document> documents, boolean flattenNestedDocuments) {
+        return collectColumnNames(new LinkedHashSet<>(), documents, flattenNestedDocuments);
     }
 
-    private static ColumnInfo[] extractColumnNames(final Document document) {
-        Set<String> keys = document.keySet();
-        ColumnInfo[] columnInfos = new ColumnInfo[keys.size()];
+    private static Set<List<String>> collectColumnNames(Set<List<String>> columnNames, List<Document> documents, boolean flattenNestedDocuments) {
+        for (Document document : documents) {
+            if (!collectColumnNames(columnNames, Collections.emptyList(), document, flattenNestedDocuments)) {
+                break;
+            }
+        }
+        return columnNames;
+    }
+
+    /**
+     * @return false once the maximum number of columns is reached
+     */
+    private static boolean collectColumnNames(Set<List<String>> columnNames, List<String> parentPath, Document document, boolean flattenNestedDocuments) {
+        for (Map.Entry<String, Object> field : document.entrySet()) {
+            List<String> path = new ArrayList<>(parentPath.size() + 1);
+            path.addAll(parentPath);
+            path.add(field.getKey());
+
+            Object value = field.getValue();
+            if (flattenNestedDocuments && value instanceof Document && !((Document) value).isEmpty()) {
+                if (!collectColumnNames(columnNames, path, (Document) value, true)) {
+                    return false;
+                }
+            } else if (columnNames.size() >= MAX_COLUMNS && !columnNames.contains(path)) {
+                return false;
+            } else {
+                columnNames.add(path);
+            }
+        }
+        return true;
+    }
+
+    private static ColumnInfo[] createColumnInfos(Set<List<String>> columnNames, MongoTableCellRenderer cellRenderer) {
+        ColumnInfo[] columnInfos = new ColumnInfo[columnNames.size()];
         int index = 0;
-        for (final String key : keys) {
-            columnInfos[index++] = new TableColumnInfo(key);
+        for (List<String> path : columnNames) {
+            columnInfos[index++] = new TableColumnInfo(path, cellRenderer);
         }
         return columnInfos;
     }
 
     private static class TableColumnInfo extends ColumnInfo {
-        private final String key;
-
-        private static final TableCellRenderer MONGO_TABLE_CELL_RENDERER = new MongoTableCellRenderer();
+        private final List<String> path;
+        private final MongoTableCellRenderer cellRenderer;
 
-        TableColumnInfo(String key) {
-            super(key);
-            this.key = key;
+        TableColumnInfo(List<String> path, MongoTableCellRenderer cellRenderer) {
+            super(String.join(".", path));
+            this.path = path;
+            this.cellRenderer = cellRenderer;
         }
 
+        /**
+         * The nested value is looked up only when the cell is painted.
+         */
         @Nullable
         @Override
         public Object valueOf(Object o) {
-            Document document = (Document) o;
-            return document.get(key);
+            Object value = o;
+            for (String key : path) {
+                if (!(value instanceof Document)) {
+                    return null;
+                }
+                value = ((Document) value).get(key);
+            }
+            return value;
         }
 
         @Nullable
         @Override
         public TableCellRenderer getRenderer(Object o) {
-            return MONGO_TABLE_CELL_RENDERER;
+            return cellRenderer;
         }
     }
 }
@@ -13,22 +13,77 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.codinjutsu.tools.mongo.view.model;
 
 import org.codinjutsu.tools.mongo.view.nodedescriptor.MongoNodeDescriptor;
 
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.MutableTreeNode;
+import javax.swing.tree.TreeNode;
+import java.util.Enumeration;
 
 public class JsonTreeNode extends DefaultMutableTreeNode {
     private final MongoNodeDescriptor nodeDescriptor;
 
+    private boolean childrenLoaded = true;
+
     public JsonTreeNode(MongoNodeDescriptor nodeDescriptor) {
         this.nodeDescriptor = nodeDescriptor;
         setUserObject(nodeDescriptor);
     }
 
+    /**
+     * Creates a node whose children are built from the value of its descriptor only when they are first asked for,
+     * i.e. when the node is expanded, so that large nested documents and arrays cost nothing until they are looked at.
+     */
+    static JsonTreeNode createLazy(MongoNodeDescriptor nodeDescriptor) {
+        JsonTreeNode treeNode = new JsonTreeNode(nodeDescriptor);
+        treeNode.childrenLoaded = !JsonTreeUtils.hasChildren(nodeDescriptor.getValue());
+        return treeNode;
+    }
+
     public MongoNodeDescriptor getDescriptor() {
         return nodeDescriptor;
     }
+
+    boolean isChildrenLoaded() {
+        return childrenLoaded;
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return childrenLoaded && super.isLeaf();
+    }
+
+    @Override
+    public int getChildCount() {
+        loadChildren();
+        return super.getChildCount();
+    }
+
+    @Override
+    public TreeNode getChildAt(int index) {
+        loadChildren();
+        return super.getChildAt(index);
+    }
+
+    @Override
+    public Enumeration children() {
+        loadChildren();
+        return super.children();
+    }
+
+    @Override
+    public void insert(MutableTreeNode newChild, int childIndex) {
+        loadChildren();
+        super.insert(newChild, childIndex);
+    }
+
+    void loadChildren() {
+        if (childrenLoaded) {
+            return;
+        }
+        childrenLoaded = true;
+        JsonTreeUtils.processValue(nodeDescriptor.getValue(), this);
+    }
 }
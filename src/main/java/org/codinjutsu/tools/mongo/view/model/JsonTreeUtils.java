@@ -27,21 +27,48 @@ import javax.swing.tree.TreeNode;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class JsonTreeUtils {
 
     public static TreeNode buildJsonTree(String collectionName, List<Document> documents, int startIndex) {
         JsonTreeNode rootNode = new JsonTreeNode(new MongoResultDescriptor(collectionName));
+        addDocuments(rootNode, documents, startIndex);
+        return rootNode;
+    }
 
+    public static void addDocuments(JsonTreeNode rootNode, List<Document> documents, int startIndex) {
         int i = startIndex;
         for (Document document : documents) {
-            JsonTreeNode currentNode = new JsonTreeNode(MongoValueDescriptor.createDescriptor(i++, document));
-            processDocument(currentNode, document);
-            rootNode.add(currentNode);
+            rootNode.add(JsonTreeNode.createLazy(MongoValueDescriptor.createDescriptor(i++, document)));
+        }
+    }
+
+    /**
+     * Builds the same tree as {@link #buildJsonTree(String, List, int)} with the fields of each document already
+     * loaded, the documents being split across the fork/join common pool. No Swing state is touched, so this is
+     * meant to run off the EDT.
+     */
+    public static JsonTreeNode buildJsonTreeInParallel(String collectionName, List<Document> documents, int startIndex) {
+        List<JsonTreeNode> documentNodes = IntStream.range(0, documents.size())
+                .parallel()
+                .mapToObj(i -> createLoadedDocumentNode(startIndex + i, documents.get(i)))
+                .collect(Collectors.toList());
+
+        JsonTreeNode rootNode = new JsonTreeNode(new MongoResultDescriptor(collectionName));
+        for (JsonTreeNode documentNode : documentNodes) {
+            rootNode.add(documentNode);
         }
         return rootNode;
     }
 
+    private static JsonTreeNode createLoadedDocumentNode(int index, Document document) {
+        JsonTreeNode documentNode = JsonTreeNode.createLazy(MongoValueDescriptor.createDescriptor(index, document));
+        documentNode.loadChildren();
+        return documentNode;
+    }
+
     public static TreeNode buildJsonTree(Document document) {
         JsonTreeNode rootNode = new JsonTreeNode(new MongoResultDescriptor());//TODO crappy
         if (document != null) {
@@ -52,23 +79,26 @@ public class JsonTreeUtils {
 
     public static void processDocument(JsonTreeNode parentNode, Document document) {
         for (String key : document.keySet()) {
-            Object value = document.get(key);
-            JsonTreeNode currentNode = new JsonTreeNode(MongoKeyValueDescriptor.createDescriptor(key, value));
-            processValue(value, currentNode);
-            parentNode.add(currentNode);
+            parentNode.add(JsonTreeNode.createLazy(MongoKeyValueDescriptor.createDescriptor(key, document.get(key))));
         }
     }
 
     public static void processObjectList(JsonTreeNode parentNode, List objectList) {
         for (int i = 0; i < objectList.size(); i++) {
-            Object value = objectList.get(i);
-            JsonTreeNode currentNode = new JsonTreeNode(MongoValueDescriptor.createDescriptor(i, value));
-            processValue(value, currentNode);
-            parentNode.add(currentNode);
+            parentNode.add(JsonTreeNode.createLazy(MongoValueDescriptor.createDescriptor(i, objectList.get(i))));
+        }
+    }
+
+    static boolean hasChildren(Object value) {
+        if (value instanceof Document) {
+            return !((Document) value).isEmpty();
+        } else if (value instanceof List) {
+            return !((List) value).isEmpty();
         }
+        return value instanceof DBRef;
     }
 
-    private static void processValue(Object value, JsonTreeNode currentNode) {
+    static void processValue(Object value, JsonTreeNode currentNode) {
         if (value instanceof Document) {
             processDocument(currentNode, (Document) value);
         } else if (value instanceof DBRef) {
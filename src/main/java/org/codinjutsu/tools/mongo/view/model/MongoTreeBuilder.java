@@ -34,11 +34,14 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class MongoTreeBuilder extends AbstractTreeBuilder {
 
@@ -52,7 +55,13 @@ public class MongoTreeBuilder extends AbstractTreeBuilder {
 
     private static final RootDescriptor ROOT_DESCRIPTOR = new RootDescriptor();
 
-    public MongoTreeBuilder(@NotNull Tree tree) {
+    private final Consumer<MongoDatabase> collectionsLoader;
+
+    /**
+     * @param collectionsLoader called when a database is expanded while its collections are not loaded yet
+     */
+    public MongoTreeBuilder(@NotNull Tree tree, @NotNull Consumer<MongoDatabase> collectionsLoader) {
+        this.collectionsLoader = collectionsLoader;
         init(tree, new DefaultTreeModel(new DefaultMutableTreeNode()), new MyTreeStructure(), (descriptorLeft, descriptorRight) -> {
             if (descriptorLeft instanceof ServerDescriptor && descriptorRight instanceof ServerDescriptor) {
                 MongoServer mongoServerLeft = (MongoServer) descriptorLeft.getElement();
@@ -73,6 +82,29 @@ public class MongoTreeBuilder extends AbstractTreeBuilder {
             return 0;
         }, true);
         initRootNode();
+
+        tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                Object userObject = ((DefaultMutableTreeNode) event.getPath().getLastPathComponent()).getUserObject();
+                if (userObject instanceof DatabaseDescriptor) {
+                    retryLoadingCollections(((DatabaseDescriptor) userObject).getElement());
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
+                // nothing to do
+            }
+        });
+    }
+
+    private void retryLoadingCollections(MongoDatabase mongoDatabase) {
+        if (mongoDatabase.getCollectionsLoadingError() == null) {
+            return;
+        }
+        mongoDatabase.setCollectionsLoadingError(null);
+        queueUpdateFrom(mongoDatabase, true);
     }
 
     public MongoServer addConfiguration(@NotNull ServerConfiguration serverConfiguration) {
@@ -99,6 +131,12 @@ public class MongoTreeBuilder extends AbstractTreeBuilder {
         queueUpdateFrom(parentDatabase, true);
     }
 
+    @Override
+    public boolean isAlwaysShowPlus(NodeDescriptor descriptor) {
+        // so that the collections are not listed just to know whether the database node is a leaf
+        return descriptor instanceof DatabaseDescriptor || super.isAlwaysShowPlus(descriptor);
+    }
+
     public void expandAll() {
         Arrays.stream(getTreeStructure().getChildElements(RootDescriptor.ROOT))
                 .forEach((server) -> this.expand(server, null));
@@ -122,7 +160,17 @@ public class MongoTreeBuilder extends AbstractTreeBuilder {
             } else if (element instanceof MongoServer) {
                 return ArrayUtil.toObjectArray(((MongoServer) element).getDatabases());
             } else if (element instanceof MongoDatabase) {
-                return ArrayUtil.toObjectArray(((MongoDatabase) element).getCollections());
+                MongoDatabase mongoDatabase = (MongoDatabase) element;
+                if (!mongoDatabase.isCollectionsLoaded()) {
+                    String collectionsLoadingError = mongoDatabase.getCollectionsLoadingError();
+                    if (collectionsLoadingError != null) {
+                        // the collections are listed again when the database is expanded next time
+                        return new Object[]{new LoadingError(collectionsLoadingError)};
+                    }
+                    collectionsLoader.accept(mongoDatabase);
+                    return new Object[]{LoadingDescriptor.LOADING};
+                }
+                return ArrayUtil.toObjectArray(mongoDatabase.getCollections());
             }
             return ArrayUtil.EMPTY_OBJECT_ARRAY;
         }
@@ -154,6 +202,10 @@ public class MongoTreeBuilder extends AbstractTreeBuilder {
                 return new DatabaseDescriptor(parentDescriptor, (MongoDatabase) element);
             } else if (element instanceof MongoCollection) {
                 return new CollectionDescriptor(parentDescriptor, (MongoCollection) element);
+            } else if (element == LoadingDescriptor.LOADING) {
+                return new LoadingDescriptor(parentDescriptor);
+            } else if (element instanceof LoadingError) {
+                return new LoadingErrorDescriptor(parentDescriptor, (LoadingError) element);
             }
 
             throw new IllegalStateException("Element not supported : " + element.getClass().getName());
@@ -198,6 +250,38 @@ public class MongoTreeBuilder extends AbstractTreeBuilder {
         }
     }
 
+    private static class LoadingDescriptor extends MyNodeDescriptor<Object> {
+        static final Object LOADING = new Object();
+
+        private LoadingDescriptor(NodeDescriptor parentDescriptor) {
+            super(parentDescriptor, LOADING);
+        }
+
+        @Override
+        protected void update(PresentationData presentation) {
+            presentation.addText("loading...", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+        }
+    }
+
+    private static class LoadingError {
+        private final String message;
+
+        private LoadingError(String message) {
+            this.message = message;
+        }
+    }
+
+    private static class LoadingErrorDescriptor extends MyNodeDescriptor<LoadingError> {
+        private LoadingErrorDescriptor(NodeDescriptor parentDescriptor, LoadingError loadingError) {
+            super(parentDescriptor, loadingError);
+        }
+
+        @Override
+        protected void update(PresentationData presentation) {
+            presentation.addText(getElement().message, SimpleTextAttributes.ERROR_ATTRIBUTES);
+        }
+    }
+
     static class ServerDescriptor extends MyNodeDescriptor<MongoServer> {
         ServerDescriptor(NodeDescriptor parentDescriptor, MongoServer server) {
             super(parentDescriptor, server);
@@ -24,9 +24,13 @@ import java.util.Collection;
 
 public class Pagination {
 
+    public static final int UNKNOWN_TOTAL_DOCUMENTS = -1;
+
     private NbPerPage nbPerPage;
+    private PaginationMode paginationMode;
     private int pageNumber;
     private int totalDocuments;
+    private int currentPageSize;
     @NotNull
     private final Collection<Runnable> mySetFilterListeners = ContainerUtil.newArrayList();
 
@@ -34,7 +38,9 @@ public class Pagination {
     public Pagination() {
         this.pageNumber = 1;
         this.nbPerPage = NbPerPage.ALL;
+        this.paginationMode = PaginationMode.CLIENT_SIDE;
         this.totalDocuments = 0;
+        this.currentPageSize = 0;
     }
 
     public void next() {
@@ -49,6 +55,28 @@ public class Pagination {
         this.totalDocuments = totalDocuments;
     }
 
+    public boolean isTotalDocumentsKnown() {
+        return totalDocuments != UNKNOWN_TOTAL_DOCUMENTS;
+    }
+
+    public void setCurrentPageSize(int currentPageSize) {
+        this.currentPageSize = currentPageSize;
+    }
+
+    public boolean hasNextPage() {
+        if (NbPerPage.ALL.equals(nbPerPage)) {
+            return false;
+        }
+        if (!isTotalDocumentsKnown()) {
+            return currentPageSize >= getNbDocumentsPerPage();
+        }
+        return pageNumber < getTotalPageNumber();
+    }
+
+    public boolean hasPreviousPage() {
+        return !NbPerPage.ALL.equals(nbPerPage) && getStartIndex() > 0;
+    }
+
     public int getNbDocumentsPerPage() {
         return nbPerPage.nb;
     }
@@ -65,6 +93,18 @@ public class Pagination {
         }
     }
 
+    /**
+     * @return the number of documents of the current page within the row limit (0 for none), 0 once the page starts
+     * past the limit
+     */
+    public int getPageLimit(int resultLimit) {
+        int pageLimit = getNbDocumentsPerPage();
+        if (resultLimit > 0) {
+            pageLimit = Math.max(0, Math.min(pageLimit, resultLimit - getStartIndex()));
+        }
+        return pageLimit;
+    }
+
     public void setPageNumber(int pageNumber) {
         this.pageNumber = pageNumber;
         for (Runnable listener : mySetFilterListeners) {
@@ -84,12 +124,32 @@ public class Pagination {
         }
     }
 
+    public PaginationMode getPaginationMode() {
+        return paginationMode;
+    }
+
+    public boolean isServerSide() {
+        return !PaginationMode.CLIENT_SIDE.equals(paginationMode) && !NbPerPage.ALL.equals(nbPerPage);
+    }
+
+    public boolean isKeyset() {
+        return PaginationMode.KEYSET.equals(paginationMode) && isServerSide();
+    }
+
+    public void setPaginationMode(PaginationMode paginationMode) {
+        this.paginationMode = paginationMode;
+        this.pageNumber = 1;
+        for (Runnable listener : mySetFilterListeners) {
+            listener.run();
+        }
+    }
+
     public void addSetPageListener(@NotNull Runnable runnable) {
         mySetFilterListeners.add(runnable);
     }
 
     public int getTotalPageNumber() {
-        if (getNbDocumentsPerPage() == 0) {
+        if (getNbDocumentsPerPage() == 0 || !isTotalDocumentsKnown()) {
             return 1;
         }
         return new BigDecimal(totalDocuments)
@@ -16,11 +16,15 @@
 
 package org.codinjutsu.tools.mongo.view.model.navigation;
 
+import org.bson.Document;
 import org.codinjutsu.tools.mongo.model.MongoCollection;
 import org.codinjutsu.tools.mongo.model.MongoQueryOptions;
+import org.codinjutsu.tools.mongo.view.model.Pagination;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Navigation {
 
@@ -54,6 +58,8 @@ public class Navigation {
     public static class WayPoint {
         private final MongoCollection collection;
         private MongoQueryOptions queryOptions;
+        private final Map<Integer, Document> keysetBoundariesByPageNumber = new HashMap<>();
+        private int totalDocuments = Pagination.UNKNOWN_TOTAL_DOCUMENTS;
 
         WayPoint(MongoCollection collection, MongoQueryOptions queryOptions) {
             this.collection = collection;
@@ -70,6 +76,31 @@ public class Navigation {
 
         public void setQueryOptions(MongoQueryOptions queryOptions) {
             this.queryOptions = queryOptions;
+            this.totalDocuments = Pagination.UNKNOWN_TOTAL_DOCUMENTS;
+            clearKeysetBoundaries();
+        }
+
+        public int getTotalDocuments() {
+            return totalDocuments;
+        }
+
+        public void setTotalDocuments(int totalDocuments) {
+            this.totalDocuments = totalDocuments;
+        }
+
+        /**
+         * @return the sort key values of the last document before the page, or null when unknown
+         */
+        public Document getKeysetBoundary(int pageNumber) {
+            return keysetBoundariesByPageNumber.get(pageNumber);
+        }
+
+        public void setKeysetBoundary(int pageNumber, Document keysetBoundary) {
+            keysetBoundariesByPageNumber.put(pageNumber, keysetBoundary);
+        }
+
+        public void clearKeysetBoundaries() {
+            keysetBoundariesByPageNumber.clear();
         }
 
         public MongoQueryOptions getQueryOptions() {
@@ -43,6 +43,9 @@ public class MongoKeyValueDescriptor implements MongoNodeDescriptor {
 
     private final SimpleTextAttributes valueTextAttributes;
 
+    private String formattedValue;
+    private Object formattedValueSource;
+
     public static MongoKeyValueDescriptor createDescriptor(String key, Object value) { //TODO refactor this
         if (value == null) {
             return new MongoKeyNullValueDescriptor(key);
@@ -115,7 +118,18 @@ public class MongoKeyValueDescriptor implements MongoNodeDescriptor {
         return key;
     }
 
+    /**
+     * The formatting is kept until the value changes, as it runs on every repaint of the cell.
+     */
     public String getFormattedValue() {
+        if (formattedValue == null || formattedValueSource != value) {
+            formattedValue = formatValue();
+            formattedValueSource = value;
+        }
+        return formattedValue;
+    }
+
+    String formatValue() {
         return StringUtils.abbreviateInCenter(value.toString(), MAX_LENGTH);
     }
 
@@ -148,7 +162,7 @@ public class MongoKeyValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
+        String formatValue() {
             return "null";
         }
 
@@ -165,7 +179,7 @@ public class MongoKeyValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
+        String formatValue() {
             return value.toString();
         }
 
@@ -184,7 +198,7 @@ public class MongoKeyValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
+        String formatValue() {
             return getFormattedDate();
         }
 
@@ -205,9 +219,8 @@ public class MongoKeyValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
-            Document document = (Document) this.value;
-            return StringUtils.abbreviateInCenter(document.toJson(DOCUMENT_CODEC), MAX_LENGTH);
+        String formatValue() {
+            return MongoUtils.toJson((Document) value, MAX_LENGTH);
         }
 
         @Override
@@ -232,7 +245,7 @@ public class MongoKeyValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
+        String formatValue() {
             return "Cannot display value";
         }
     }
@@ -243,7 +256,7 @@ public class MongoKeyValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
+        String formatValue() {
             DBRef dbRef = (DBRef) this.value;
             return StringUtils.abbreviateInCenter(dbRef.toString(), MAX_LENGTH);
         }
@@ -263,8 +276,8 @@ public class MongoKeyValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
-            return StringUtils.abbreviateInCenter(getFormattedList(), MAX_LENGTH);
+        String formatValue() {
+            return MongoUtils.stringifyList((List) value, MAX_LENGTH);
         }
 
         @Override
@@ -40,6 +40,9 @@ public class MongoValueDescriptor implements MongoNodeDescriptor {
     Object value;
     private final SimpleTextAttributes valueTextAttributes;
 
+    private String formattedValue;
+    private Object formattedValueSource;
+
     public static MongoValueDescriptor createDescriptor(int index, Object value) { //TODO refactor this
         if (value == null) {
             return new MongoNullValueDescriptor(index);
@@ -94,7 +97,18 @@ public class MongoValueDescriptor implements MongoNodeDescriptor {
         return String.format("[%s]", index);
     }
 
+    /**
+     * The formatting is kept until the value changes, as it runs on every repaint of the cell.
+     */
     public String getFormattedValue() {
+        if (formattedValue == null || formattedValueSource != value) {
+            formattedValue = formatValue();
+            formattedValueSource = value;
+        }
+        return formattedValue;
+    }
+
+    String formatValue() {
         return String.format("%s", StringUtils.abbreviateInCenter(value.toString(), MAX_LENGTH));
     }
 
@@ -123,7 +137,7 @@ public class MongoValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
+        String formatValue() {
             return StringUtils.abbreviateInCenter(value.toString(), MAX_LENGTH);
         }
     }
@@ -135,7 +149,7 @@ public class MongoValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
+        String formatValue() {
             return "null";
         }
 
@@ -154,7 +168,7 @@ public class MongoValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
+        String formatValue() {
             return getFormattedDate();
         }
 
@@ -177,9 +191,8 @@ public class MongoValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
-            Document document = (Document) value;
-            return String.format("%s", StringUtils.abbreviateInCenter(document.toJson(DOCUMENT_CODEC), MAX_LENGTH));
+        String formatValue() {
+            return MongoUtils.toJson((Document) value, MAX_LENGTH);
         }
 
         @Override
@@ -199,8 +212,8 @@ public class MongoValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
-            return getFormattedList();
+        String formatValue() {
+            return MongoUtils.stringifyList((List) value, MAX_LENGTH);
         }
 
         @Override
@@ -220,7 +233,7 @@ public class MongoValueDescriptor implements MongoNodeDescriptor {
         }
 
         @Override
-        public String getFormattedValue() {
+        String formatValue() {
             return "Cannot display value";
         }
     }
@@ -19,12 +19,31 @@ package org.codinjutsu.tools.mongo.view.renderer;
 import com.intellij.ui.ColoredTableCellRenderer;
 import org.bson.Document;
 import org.bson.types.ObjectId;
+import org.codinjutsu.tools.mongo.utils.MongoUtils;
 import org.codinjutsu.tools.mongo.view.style.StyleAttributesProvider;
 
 import javax.swing.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Renders the cells of one table model. The text of the documents and lists is truncated and kept for the most
+ * recently painted cells, so it is not serialised again on every repaint. The model must clear the cache as soon
+ * as its rows or columns change.
+ */
 public class MongoTableCellRenderer extends ColoredTableCellRenderer {
 
+    private static final int MAX_TEXT_LENGTH = 300;
+    private static final int MAX_CACHED_CELLS = 2000;
+
+    private final Map<Long, String> textsByCell = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_CACHED_CELLS;
+        }
+    };
+
     @Override
     protected void customizeCellRenderer(JTable table, Object value, boolean selected, boolean hasFocus, int row, int column) {
 
@@ -35,8 +54,8 @@ public class MongoTableCellRenderer extends ColoredTableCellRenderer {
                 append(String.valueOf(value), StyleAttributesProvider.getNumberAttribute());
             } else if (value instanceof Boolean) {
                 append(String.valueOf(value), StyleAttributesProvider.getBooleanAttribute());
-            } else if (value instanceof Document) {
-                append(((Document) value).toJson(), StyleAttributesProvider.getDocumentAttribute());
+            } else if (value instanceof Document || value instanceof List) {
+                append(getText(table, value, row, column), StyleAttributesProvider.getDocumentAttribute());
             } else if (value instanceof ObjectId) {
                 append(String.valueOf(value), StyleAttributesProvider.getObjectIdAttribute());
             } else {
@@ -44,4 +63,15 @@ public class MongoTableCellRenderer extends ColoredTableCellRenderer {
             }
         }
     }
+
+    public void clearCache() {
+        textsByCell.clear();
+    }
+
+    private String getText(JTable table, Object value, int row, int column) {
+        long cell = ((long) table.convertRowIndexToModel(row) << 32) | table.convertColumnIndexToModel(column);
+        return textsByCell.computeIfAbsent(cell, key -> value instanceof Document ?
+                MongoUtils.toJson((Document) value, MAX_TEXT_LENGTH) :
+                MongoUtils.stringifyList((List) value, MAX_TEXT_LENGTH));
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.logic;
+package org.codinjutsu.tools.mongo.logic;
+
+import org.bson.Document;
+import org.codinjutsu.tools.mongo.model.ExportFormat;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentExportWriterTest {
+
+    @Test
+    public void writeNewlineDelimitedDocuments() throws IOException {
+        String content = export(ExportFormat.NDJSON,
+                new Document("name", "Paul").append("age", 25),
+                new Document("name", "Melissa"));
+
+        assertThat(content).isEqualTo("{ \"name\" : \"Paul\", \"age\" : 25 }\n{ \"name\" : \"Melissa\" }\n");
+    }
+
+    @Test
+    public void writeArrayOfDocuments() throws IOException {
+        assertThat(export(ExportFormat.JSON_ARRAY, new Document("name", "Paul"), new Document("name", "Melissa")))
+                .isEqualTo("[\n{ \"name\" : \"Paul\" },\n{ \"name\" : \"Melissa\" }\n]\n");
+        assertThat(export(ExportFormat.JSON_ARRAY)).isEqualTo("[]\n");
+    }
+
+    @Test
+    public void writeCsvWithTheFieldsOfAllDocuments() throws IOException {
+        String content = export(ExportFormat.CSV,
+                new Document("name", "Paul").append("comment", "likes \"quotes\", commas"),
+                new Document("name", "Melissa").append("address", new Document("city", "Paris")).append("tags", Arrays.asList("a", "b")));
+
+        assertThat(content).isEqualTo("name,comment,address,tags\r\n" +
+                "Paul,\"likes \"\"quotes\"\", commas\",,\r\n" +
+                "Melissa,,\"{ \"\"city\"\" : \"\"Paris\"\" }\",\"[\"\"a\"\", \"\"b\"\"]\"\r\n");
+    }
+
+    @Test
+    public void writeCsvAfterTheHeaderSample() throws IOException {
+        Document[] documents = new Document[DocumentExportWriter.CSV_HEADER_SAMPLE_SIZE + 1];
+        Arrays.fill(documents, new Document("name", "Paul"));
+        documents[documents.length - 1] = new Document("name", "Melissa").append("age", 26);
+
+        String content = export(ExportFormat.CSV, documents);
+
+        assertThat(content).startsWith("name\r\nPaul\r\n").endsWith("Paul\r\nMelissa\r\n");
+        assertThat(content.split("\r\n")).hasSize(documents.length + 1);
+    }
+
+    private static String export(ExportFormat format, Document... documents) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (DocumentExportWriter documentWriter = new DocumentExportWriter(writer, format)) {
+            for (Document document : documents) {
+                documentWriter.write(document);
+            }
+        }
+        return writer.toString();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.logic;
+package org.codinjutsu.tools.mongo.logic;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentRateLimiterTest {
+
+    @Test
+    public void spaceOutWrites() {
+        DocumentRateLimiter rateLimiter = new DocumentRateLimiter(100);
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire(10);
+        }
+
+        // the first write starts right away, the two next ones wait for 100ms each
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)).isGreaterThanOrEqualTo(190);
+    }
+
+    @Test
+    public void noLimit() {
+        DocumentRateLimiter rateLimiter = new DocumentRateLimiter(0);
+
+        long startTime = System.nanoTime();
+        rateLimiter.acquire(1_000_000);
+        rateLimiter.acquire(1_000_000);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)).isLessThan(100);
+    }
+}
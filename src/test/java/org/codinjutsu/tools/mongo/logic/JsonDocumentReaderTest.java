@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.logic;
+
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class JsonDocumentReaderTest {
+
+    @Test
+    public void readArrayOfDocuments() {
+        List<Document> documents = readAll("[{\"_id\": {\"$oid\": \"50b8d63414f85401b9268b99\"}, \"tags\": [{\"a\": 1}]},\n {\"label\": \"} and {\"}]");
+
+        assertThat(documents).containsExactly(
+                new Document("_id", new ObjectId("50b8d63414f85401b9268b99")).append("tags", Collections.singletonList(new Document("a", 1))),
+                new Document("label", "} and {"));
+    }
+
+    @Test
+    public void readNewlineDelimitedDocuments() {
+        List<Document> documents = readAll("{\"name\": \"Paul\"}\n{\"name\": \"Mel\\\"issa\"}\n\n{'name': 'Roger'}\n");
+
+        assertThat(documents).containsExactly(
+                new Document("name", "Paul"),
+                new Document("name", "Mel\"issa"),
+                new Document("name", "Roger"));
+    }
+
+    @Test
+    public void readSingleDocument() {
+        assertThat(readAll("  {\"name\": \"Paul\"}  ")).containsExactly(new Document("name", "Paul"));
+    }
+
+    @Test
+    public void readTruncatedDocument() {
+        try {
+            readAll("{\"name\": \"Paul\"}\n{\"name\": ");
+            fail("the truncated document should not be read");
+        } catch (JsonParseException ex) {
+            assertThat(ex.getMessage()).startsWith("Unexpected end of file");
+        }
+    }
+
+    @Test
+    public void readMultiByteCharacters() {
+        assertThat(readAll("{\"name\": \"Cl\u00e9ment\"}\n{\"city\": \"\u6771\u4eac\"}")).containsExactly(
+                new Document("name", "Cl\u00e9ment"),
+                new Document("city", "\u6771\u4eac"));
+    }
+
+    @Test
+    public void readRegularExpressionWithBraces() {
+        List<Document> documents = readAll("{\"code\": /a{2}\\//}\n{\"name\": \"Paul\"}");
+
+        assertThat(documents).hasSize(2);
+        assertThat(documents.get(0)).containsKey("code");
+        assertThat(documents.get(1)).isEqualTo(new Document("name", "Paul"));
+    }
+
+    @Test
+    public void readEmptyArray() {
+        assertThat(readAll(" [ ] ")).isEmpty();
+    }
+
+    @Test
+    public void readMalformedArrays() {
+        assertParseError("[[{\"a\": 1}]]", "Unexpected character '[' at byte offset 1");
+        assertParseError("[{\"a\": 1},, {\"a\": 2}]", "Unexpected character ',' at byte offset 10");
+        assertParseError("[{\"a\": 1},]", "Unexpected character ']' at byte offset 10");
+        assertParseError("[{\"a\": 1} {\"a\": 2}]", "Unexpected character '{' at byte offset 10");
+        assertParseError("[{\"a\": 1}", "Unexpected end of file at byte offset 9");
+        assertParseError("[{\"a\": 1}] {\"a\": 2}", "Unexpected character '{' at byte offset 11");
+        assertParseError("{\"a\": 1}]", "Unexpected character ']' at byte offset 8");
+        assertParseError("{\"a\": 1},\n{\"a\": 2}", "Unexpected character ',' at byte offset 8");
+    }
+
+    @Test
+    public void reportByteOffsetAfterMultiByteCharacters() {
+        assertParseError("{\"name\": \"Cl\u00e9ment\"} x", "Unexpected character 'x' at byte offset 21");
+    }
+
+    private static void assertParseError(String json, String expectedMessage) {
+        try {
+            readAll(json);
+            fail("the malformed content should not be read: " + json);
+        } catch (JsonParseException ex) {
+            assertThat(ex.getMessage()).startsWith(expectedMessage);
+        }
+    }
+
+    private static List<Document> readAll(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        JsonDocumentReader documentReader = new JsonDocumentReader(new ByteArrayInputStream(bytes), bytes.length);
+        List<Document> documents = new ArrayList<>();
+        documentReader.forEachRemaining(documents::add);
+        assertThat(documentReader.getReadFraction()).isEqualTo(1.0);
+        return documents;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.logic;
+
+import com.mongodb.MongoClient;
+import org.codinjutsu.tools.mongo.ServerConfiguration;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class MongoClientRegistryTest {
+
+    private final List<ServerConfiguration> configurationsInUse = new ArrayList<>();
+    private final MongoClientRegistry clientRegistry = new MongoClientRegistry(configuration -> mock(MongoClient.class), () -> configurationsInUse);
+
+    @Test
+    public void reuseClientOfConfiguration() {
+        ServerConfiguration configuration = createConfiguration("localhost:27017");
+        configurationsInUse.add(configuration);
+
+        assertThat(clientRegistry.getClient(configuration)).isSameAs(clientRegistry.getClient(configuration));
+    }
+
+    @Test
+    public void closeClientOfEditedConfiguration() {
+        ServerConfiguration configuration = createConfiguration("localhost:27017");
+        configurationsInUse.add(configuration);
+        MongoClient mongoClient = clientRegistry.getClient(configuration);
+
+        configuration.setServerUrls(Collections.singletonList("localhost:27018"));
+
+        assertThat(clientRegistry.getClient(configuration)).isNotSameAs(mongoClient);
+        verify(mongoClient).close();
+    }
+
+    @Test
+    public void closeClientOfReplacedConfiguration() {
+        ServerConfiguration configuration = createConfiguration("localhost:27017");
+        configurationsInUse.add(configuration);
+        MongoClient mongoClient = clientRegistry.getClient(configuration);
+
+        ServerConfiguration replacingConfiguration = createConfiguration("localhost:27017");
+        configurationsInUse.set(0, replacingConfiguration);
+        clientRegistry.getClient(replacingConfiguration);
+
+        verify(mongoClient).close();
+    }
+
+    @Test
+    public void keepClientOfOtherConfigurationInUse() {
+        ServerConfiguration configuration = createConfiguration("localhost:27017");
+        ServerConfiguration otherConfiguration = createConfiguration("localhost:27018");
+        configurationsInUse.add(configuration);
+        configurationsInUse.add(otherConfiguration);
+        MongoClient mongoClient = clientRegistry.getClient(configuration);
+
+        clientRegistry.getClient(otherConfiguration);
+
+        verify(mongoClient, never()).close();
+    }
+
+    private static ServerConfiguration createConfiguration(String serverUrl) {
+        ServerConfiguration configuration = new ServerConfiguration();
+        configuration.setServerUrls(Collections.singletonList(serverUrl));
+        return configuration;
+    }
+}
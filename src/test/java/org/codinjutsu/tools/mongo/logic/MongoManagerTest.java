@@ -16,6 +16,7 @@
 
 package org.codinjutsu.tools.mongo.logic;
 
+import com.intellij.openapi.progress.EmptyProgressIndicator;
 import com.mongodb.MongoClient;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoDatabase;
@@ -27,11 +28,16 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
 public class MongoManagerTest {
 
@@ -89,6 +95,20 @@ public class MongoManagerTest {
         assertThat(actualDatabase.getName()).isEqualTo("test");
 
         assertThat(actualDatabase.getParentServer()).isEqualTo(mongoServer);
+        assertThat(actualDatabase.isCollectionsLoaded()).isFalse();
+    }
+
+    @Test
+    public void loadCollections() {
+        ServerConfiguration configuration = ServerConfiguration.byDefault();
+        configuration.setLabel("Server for testing");
+        configuration.setUserDatabase("test");
+        MongoServer mongoServer = new MongoServer(configuration);
+        org.codinjutsu.tools.mongo.model.MongoDatabase actualDatabase = new org.codinjutsu.tools.mongo.model.MongoDatabase("test", mongoServer);
+
+        actualDatabase.setCollections(mongoManager.loadCollections(configuration, actualDatabase));
+
+        assertThat(actualDatabase.isCollectionsLoaded()).isTrue();
         assertThat(actualDatabase.getCollections().isEmpty()).isFalse();
 
         MongoCollection actualMongoCollection = actualDatabase.getCollections().iterator().next();
@@ -124,6 +144,25 @@ public class MongoManagerTest {
         );
     }
 
+    @Test
+    public void findDocuments_FetchesTheFollowingBatchesOnDemand() {
+        MongoQueryOptions mongoQueryOptions = new MongoQueryOptions();
+        mongoQueryOptions.setResultLimit(3);
+        mongoQueryOptions.setBatchSize(2);
+
+        MongoCollectionResult mongoCollectionResult =
+                mongoManager.findMongoDocuments(serverConfiguration,
+                        createMongoCollectionForTest(), mongoQueryOptions);
+
+        assertThat(mongoCollectionResult.getDocuments()).extracting(document -> document.get("name"))
+                .containsExactly("Paul", "Melissa");
+        assertThat(mongoCollectionResult.hasMoreDocuments()).isTrue();
+
+        assertThat(mongoManager.fetchNextBatch(mongoCollectionResult)).extracting(document -> document.get("name"))
+                .containsExactly("Roger");
+        assertThat(mongoCollectionResult.hasMoreDocuments()).isFalse();
+    }
+
     @Test
     public void findDocuments_WithFilterAndProjection() {
         MongoQueryOptions mongoQueryOptions = new MongoQueryOptions();
@@ -301,7 +340,7 @@ public class MongoManagerTest {
 
     @Test
     public void importDataWithReplaceAllOption() {
-        mongoManager.importData(serverConfiguration, createMongoCollectionForTest(),
+        importData(
                 Arrays.asList(
                         new Document()
                                 .append("name", "Wayne")
@@ -331,7 +370,7 @@ public class MongoManagerTest {
 
     @Test
     public void importDataWithoutReplaceAllOption() {
-        mongoManager.importData(serverConfiguration, createMongoCollectionForTest(),
+        importData(
                 Collections.singletonList(
                         new Document()
                                 .append("name", "Wayne")
@@ -366,6 +405,233 @@ public class MongoManagerTest {
                         .append("age", 25));
     }
 
+    @Test
+    public void importDataThroughTemporaryCollectionKeepsIndexes() {
+        MongoImportOptions importOptions = new MongoImportOptions();
+        importOptions.setReplaceAllDocuments(true);
+        importOptions.setReplaceAllMode(ReplaceAllMode.TEMPORARY_COLLECTION);
+        importOptions.setBatchSize(1);
+
+        peopleCollection.createIndex(new Document("name", 1));
+        try {
+            importData(
+                    Collections.singletonList(
+                            new Document()
+                                    .append("name", "Wayne")
+                                    .append("position", "batman")
+                                    .append("age", 25)),
+                    importOptions);
+
+            assertThat(peopleCollection.listIndexes().map(index -> index.getString("name")))
+                    .containsExactlyInAnyOrder("_id_", "name_1");
+            assertThat(peopleCollection.countDocuments()).isEqualTo(1);
+        } finally {
+            peopleCollection.dropIndex("name_1");
+        }
+    }
+
+    @Test
+    public void failedImportThroughTemporaryCollectionLeavesNoTemporaryCollection() {
+        MongoImportOptions importOptions = new MongoImportOptions();
+        importOptions.setReplaceAllDocuments(true);
+        importOptions.setReplaceAllMode(ReplaceAllMode.TEMPORARY_COLLECTION);
+        importOptions.setBatchSize(1);
+        importOptions.setWriterCount(4);
+
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            documents.add(new Document("_id", i % 100).append("name", "Wayne"));
+        }
+        try {
+            importData(documents, importOptions);
+            fail("the duplicate ids should fail the import");
+        } catch (ConfigurationException ex) {
+            // expected
+        }
+
+        try (MongoClient mongo = new MongoClient("localhost:27017")) {
+            List<String> collectionNames = mongo.getDatabase("test").listCollectionNames().into(new ArrayList<>());
+            assertThat(collectionNames).filteredOn(name -> name.startsWith("people_import_")).isEmpty();
+        }
+        assertThat(peopleCollection.countDocuments()).isEqualTo(4);
+    }
+
+    @Test
+    public void importDataWithChunkedDeleteOfAllDocuments() {
+        MongoImportOptions importOptions = new MongoImportOptions();
+        importOptions.setReplaceAllDocuments(true);
+        importOptions.setReplaceAllMode(ReplaceAllMode.CHUNKED_DELETE);
+        importOptions.setMaxDocumentsPerSecond(1000);
+        importOptions.setBatchSize(3);
+
+        importData(
+                Collections.singletonList(
+                        new Document()
+                                .append("name", "Wayne")
+                                .append("position", "batman")
+                                .append("age", 25)),
+                importOptions);
+
+        FindIterable<Document> actualDocuments =
+                peopleCollection
+                        .find(new Document())
+                        .projection(new Document("_id", 0));
+        assertThat(actualDocuments).containsExactly(
+                new Document()
+                        .append("name", "Wayne")
+                        .append("position", "batman")
+                        .append("age", 25));
+    }
+
+    @Test
+    public void importDataWithoutAcknowledgement() {
+        MongoImportOptions importOptions = new MongoImportOptions();
+        importOptions.setWriteConcern("0");
+        importOptions.setBatchSize(1);
+
+        MongoImportResult importResult = importData(
+                Arrays.asList(new Document("name", "Wayne"), new Document("name", "Joker")),
+                importOptions);
+
+        assertThat(importResult.getUnacknowledgedCount()).isEqualTo(2);
+        assertThat(importResult.getInsertedCount()).isEqualTo(0);
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void importDataWaitingForJournalWithoutAcknowledgement() {
+        MongoImportOptions importOptions = new MongoImportOptions();
+        importOptions.setWriteConcern("0");
+        importOptions.setJournal(true);
+
+        importData(Collections.singletonList(new Document("name", "Wayne")), importOptions);
+    }
+
+    @Test
+    public void importDataWithUpsertKey() {
+        MongoImportOptions importOptions = new MongoImportOptions();
+        importOptions.setUpsertKey("name");
+        importOptions.setBatchSize(2);
+
+        MongoImportResult importResult = importData(
+                Arrays.asList(
+                        new Document()
+                                .append("name", "Paul")
+                                .append("position", "architect")
+                                .append("age", 25),
+                        new Document()
+                                .append("name", "Roger")
+                                .append("position", "manager")
+                                .append("age", 27),
+                        new Document()
+                                .append("name", "Wayne")
+                                .append("position", "batman")
+                                .append("age", 25),
+                        new Document()
+                                .append("position", "intern")),
+                importOptions);
+
+        assertThat(importResult.getUpsertedCount()).isEqualTo(1);
+        assertThat(importResult.getMatchedCount()).isEqualTo(2);
+        assertThat(importResult.getModifiedCount()).isEqualTo(1);
+        assertThat(importResult.getInsertedCount()).isEqualTo(1);
+        assertThat(importResult.getSummary()).isEqualTo("1 documents upserted, 2 matched, 1 modified, 1 inserted without the name field");
+        FindIterable<Document> actualDocuments =
+                peopleCollection
+                        .find(new Document())
+                        .projection(new Document("_id", 0));
+        assertThat(actualDocuments).containsExactly(
+                new Document()
+                        .append("name", "Paul")
+                        .append("position", "architect")
+                        .append("age", 25),
+                new Document()
+                        .append("name", "Melissa")
+                        .append("position", "developer")
+                        .append("age", 26),
+                new Document()
+                        .append("name", "Roger")
+                        .append("position", "manager")
+                        .append("age", 27),
+                new Document()
+                        .append("name", "Shirley")
+                        .append("comment", "director")
+                        .append("age", 28),
+                new Document()
+                        .append("name", "Wayne")
+                        .append("position", "batman")
+                        .append("age", 25),
+                new Document()
+                        .append("position", "intern"));
+    }
+
+    @Test
+    public void exportDataOfQuery() throws IOException {
+        MongoQueryOptions queryOptions = new MongoQueryOptions();
+        queryOptions.setFilter("{\"position\": \"developer\"}");
+        queryOptions.setProjection("{\"_id\": 0, \"name\": 1}");
+        MongoExportOptions exportOptions = new MongoExportOptions();
+        exportOptions.setBatchSize(1);
+
+        StringWriter writer = new StringWriter();
+        long exportedDocuments;
+        try (DocumentExportWriter documentWriter = new DocumentExportWriter(writer, ExportFormat.NDJSON)) {
+            exportedDocuments = mongoManager.exportData(serverConfiguration, createMongoCollectionForTest(), queryOptions,
+                    exportOptions, documentWriter, new EmptyProgressIndicator());
+        }
+
+        assertThat(exportedDocuments).isEqualTo(2);
+        assertThat(writer.toString()).isEqualTo("{ \"name\" : \"Paul\" }\n{ \"name\" : \"Melissa\" }\n");
+    }
+
+    @Test
+    public void exportDataOfQueryIgnoresRowLimit() throws IOException {
+        MongoQueryOptions queryOptions = new MongoQueryOptions();
+        queryOptions.setProjection("{\"_id\": 0, \"name\": 1}");
+        queryOptions.setResultLimit(1);
+        MongoExportOptions exportOptions = new MongoExportOptions();
+
+        StringWriter writer = new StringWriter();
+        long exportedDocuments;
+        try (DocumentExportWriter documentWriter = new DocumentExportWriter(writer, ExportFormat.NDJSON)) {
+            exportedDocuments = mongoManager.exportData(serverConfiguration, createMongoCollectionForTest(), queryOptions,
+                    exportOptions, documentWriter, new EmptyProgressIndicator());
+        }
+
+        assertThat(exportedDocuments).isEqualTo(4);
+        assertThat(writer.toString().split("\n")).hasSize(4);
+    }
+
+    @Test
+    public void exportDataOfAggregateIgnoresRowLimit() throws IOException {
+        MongoQueryOptions queryOptions = new MongoQueryOptions();
+        queryOptions.setOperations("[{'$project': {'_id': 0, 'name': 1}}]");
+        queryOptions.setResultLimit(1);
+        MongoExportOptions exportOptions = new MongoExportOptions();
+
+        StringWriter writer = new StringWriter();
+        long exportedDocuments;
+        try (DocumentExportWriter documentWriter = new DocumentExportWriter(writer, ExportFormat.NDJSON)) {
+            exportedDocuments = mongoManager.exportData(serverConfiguration, createMongoCollectionForTest(), queryOptions,
+                    exportOptions, documentWriter, new EmptyProgressIndicator());
+        }
+
+        assertThat(exportedDocuments).isEqualTo(4);
+        assertThat(writer.toString().split("\n")).hasSize(4);
+    }
+
+    private void importData(List<Document> documents, boolean replaceAllDocuments) {
+        MongoImportOptions importOptions = new MongoImportOptions();
+        importOptions.setReplaceAllDocuments(replaceAllDocuments);
+        importOptions.setBatchSize(1);
+        importData(documents, importOptions);
+    }
+
+    private MongoImportResult importData(List<Document> documents, MongoImportOptions importOptions) {
+        byte[] bytes = documents.stream().map(Document::toJson).collect(Collectors.joining("\n")).getBytes(StandardCharsets.UTF_8);
+        return mongoManager.importData(serverConfiguration, createMongoCollectionForTest(),
+                new JsonDocumentReader(new ByteArrayInputStream(bytes), bytes.length), importOptions, new EmptyProgressIndicator());
+    }
+
     @NotNull
     private MongoCollection createMongoCollectionForTest() {
         return new MongoCollection("people", createMongoDatabaseForTest());
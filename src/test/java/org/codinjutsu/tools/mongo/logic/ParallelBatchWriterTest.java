@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codinjutsu.tools.mongo.logic;
+package org.codinjutsu.tools.mongo.logic;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class ParallelBatchWriterTest {
+
+    @Test
+    public void writeAllBatches() {
+        Set<Object> writtenIds = ConcurrentHashMap.newKeySet();
+        try (ParallelBatchWriter batchWriter = new ParallelBatchWriter(3,
+                documents -> documents.forEach(document -> writtenIds.add(document.get("_id"))))) {
+            for (int i = 0; i < 50; i++) {
+                batchWriter.write(Collections.singletonList(new Document("_id", i)));
+            }
+            batchWriter.flush();
+
+            assertThat(batchWriter.getWrittenDocuments()).isEqualTo(50);
+        }
+        assertThat(writtenIds).hasSize(50);
+    }
+
+    @Test
+    public void rethrowFailureOfWriter() {
+        try (ParallelBatchWriter batchWriter = new ParallelBatchWriter(2, this::failOnSecondDocument)) {
+            batchWriter.write(Collections.singletonList(new Document("_id", 1)));
+            batchWriter.write(Collections.singletonList(new Document("_id", 2)));
+            batchWriter.flush();
+            fail("the failure of the writer should be rethrown");
+        } catch (IllegalStateException ex) {
+            assertThat(ex).hasMessage("duplicate key 2");
+        }
+    }
+
+    @Test
+    public void closeWaitsForRunningBatches() {
+        Set<Object> writtenIds = ConcurrentHashMap.newKeySet();
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        try (ParallelBatchWriter batchWriter = new ParallelBatchWriter(1, documents -> {
+            writeStarted.countDown();
+            sleep(200);
+            documents.forEach(document -> writtenIds.add(document.get("_id")));
+        })) {
+            batchWriter.write(Collections.singletonList(new Document("_id", 1)));
+            batchWriter.write(Collections.singletonList(new Document("_id", 2)));
+            await(writeStarted);
+        }
+
+        // the running batch is over, the pending one is skipped
+        assertThat(writtenIds).containsExactly(1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void failOnSecondDocument(List<Document> documents) {
+        if (documents.get(0).getInteger("_id") == 2) {
+            throw new IllegalStateException("duplicate key 2");
+        }
+    }
+}
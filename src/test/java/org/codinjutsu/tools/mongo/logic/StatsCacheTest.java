@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.logic;
+
+import org.codinjutsu.tools.mongo.model.StatInfoEntry;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatsCacheTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    @Test
+    public void expiredStatsAreStillReturned() {
+        StatsCache statsCache = new StatsCache(10, 1000, now::get);
+        List<StatInfoEntry> stats = Collections.emptyList();
+        statsCache.put("local/test.people", stats);
+
+        now.set(999);
+        assertThat(statsCache.get("local/test.people").isExpired()).isFalse();
+
+        now.set(1000);
+        StatsCache.Entry expiredStats = statsCache.get("local/test.people");
+        assertThat(expiredStats.isExpired()).isTrue();
+        assertThat(expiredStats.getStats()).isSameAs(stats);
+    }
+
+    @Test
+    public void leastRecentlyUsedNamespaceIsEvictedWhenFull() {
+        StatsCache statsCache = new StatsCache(2, 1000, now::get);
+        statsCache.put("local/test", Collections.emptyList());
+        statsCache.put("local/test.people", Collections.emptyList());
+        statsCache.get("local/test");
+
+        statsCache.put("local/test.places", Collections.emptyList());
+
+        assertThat(statsCache.get("local/test")).isNotNull();
+        assertThat(statsCache.get("local/test.people")).isNull();
+        assertThat(statsCache.get("local/test.places")).isNotNull();
+    }
+
+    @Test
+    public void invalidateServerNamespaces() {
+        StatsCache statsCache = new StatsCache(10, 1000, now::get);
+        statsCache.put("local/test", Collections.emptyList());
+        statsCache.put("remote/test", Collections.emptyList());
+
+        statsCache.invalidate("local/");
+
+        assertThat(statsCache.get("local/test")).isNull();
+        assertThat(statsCache.get("remote/test")).isNotNull();
+    }
+}
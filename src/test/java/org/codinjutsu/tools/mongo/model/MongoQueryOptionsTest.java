@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018 David Boissier.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.mongo.model;
+
+import com.mongodb.BasicDBObject;
+import org.bson.Document;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MongoQueryOptionsTest {
+
+    @Test
+    public void keysetPageOnIdWhenNoSortIsSet() {
+        MongoQueryOptions queryOptions = new MongoQueryOptions();
+
+        MongoQueryOptions pageQueryOptions = queryOptions.forKeysetPage(new Document("_id", 10), 20);
+
+        assertThat(pageQueryOptions.getSort()).isEqualTo(new Document("_id", 1));
+        assertThat(pageQueryOptions.getFilter()).isEqualTo(new Document("_id", new Document("$gt", 10)));
+        assertThat(pageQueryOptions.getResultLimit()).isEqualTo(20);
+        assertThat(pageQueryOptions.getSkip()).isEqualTo(0);
+    }
+
+    @Test
+    public void keysetPageOnSortKeyWithFilter() {
+        MongoQueryOptions queryOptions = new MongoQueryOptions();
+        queryOptions.setFilter("{'position': 'developer'}");
+        queryOptions.setSort("{'age': -1}");
+
+        MongoQueryOptions pageQueryOptions = queryOptions.forKeysetPage(
+                queryOptions.extractKeysetBoundary(new Document("_id", 3).append("age", 25).append("name", "Paul")), 10);
+
+        assertThat(pageQueryOptions.getSort()).isEqualTo(new Document("age", -1).append("_id", 1));
+        assertThat(pageQueryOptions.getFilter()).isEqualTo(new Document("$and", Arrays.asList(
+                new Document("position", "developer"),
+                new Document("$or", Arrays.asList(
+                        new Document("age", new Document("$lt", 25)),
+                        new Document("age", 25).append("_id", new Document("$gt", 3))))
+        )));
+    }
+
+    @Test
+    public void keysetBoundaryIsUnknownWhenSortKeyIsMissing() {
+        MongoQueryOptions queryOptions = new MongoQueryOptions();
+        queryOptions.setSort("{'address.city': 1}");
+
+        assertThat(queryOptions.extractKeysetBoundary(new Document("_id", 3))).isNull();
+        assertThat(queryOptions.extractKeysetBoundary(new Document("_id", 3).append("address", new Document("city", "Paris"))))
+                .isEqualTo(new Document("address.city", "Paris").append("_id", 3));
+    }
+
+    @Test
+    public void aggregatePipelineEndsWithRowLimit() {
+        MongoQueryOptions queryOptions = new MongoQueryOptions();
+        queryOptions.setOperations("[{'$match': {'position': 'developer'}}]");
+        queryOptions.setResultLimit(50);
+
+        assertThat(queryOptions.getAggregatePipeline()).containsExactly(
+                new BasicDBObject("$match", new BasicDBObject("position", "developer")),
+                new BasicDBObject("$limit", 50));
+    }
+
+    @Test
+    public void aggregatePipelineIsNotLimitedAfterOutputStage() {
+        MongoQueryOptions queryOptions = new MongoQueryOptions();
+        queryOptions.setOperations("[{'$match': {'position': 'developer'}}, {'$out': 'developers'}]");
+        queryOptions.setResultLimit(50);
+
+        assertThat(queryOptions.getAggregatePipeline()).isEqualTo(queryOptions.getOperations());
+    }
+}
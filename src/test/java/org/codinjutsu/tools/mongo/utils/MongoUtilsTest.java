@@ -24,6 +24,7 @@ import org.codinjutsu.tools.mongo.model.MongoDatabase;
 import org.codinjutsu.tools.mongo.model.MongoServer;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -88,4 +89,34 @@ public class MongoUtilsTest {
 
         assertThat(MongoUtils.stringifyList(list)).isEqualTo("[[\"foo\", { \"key\" : \"value1\" }], { \"bar\" : 12 }]");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void stringifyListStopsAtTheMaxLength() {
+        List<Object> list = new LinkedList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(new Document("key", i));
+        }
+
+        String stringifiedList = MongoUtils.stringifyList(list, 30);
+
+        assertThat(stringifiedList).hasSize(30);
+        assertThat(stringifiedList).isEqualTo("[{ \"key\" : 0 }, { \"key\" : 1...");
+    }
+
+    @Test
+    public void stringifyShortListWithMaxLength() {
+        List<Object> list = new LinkedList<>();
+        list.add("foo");
+        list.add(new Document("key", "value"));
+
+        assertThat(MongoUtils.stringifyList(list, 150)).isEqualTo(MongoUtils.stringifyList(list));
+    }
+
+    @Test
+    public void toJsonStopsAtTheMaxLength() {
+        Document document = new Document("label", "toto").append("tags", Collections.nCopies(10000, "tag"));
+
+        assertThat(MongoUtils.toJson(document, 25)).isEqualTo("{ \"label\" : \"toto\", \"t...");
+        assertThat(MongoUtils.toJson(new Document("label", "toto"), 25)).isEqualTo("{ \"label\" : \"toto\" }");
+    }
+}
@@ -24,6 +24,10 @@ import org.codinjutsu.tools.mongo.model.MongoCollectionResult;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -63,4 +67,45 @@ public class JsonTableUtilsTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void buildJsonTableWithTheFieldsOfAllDocuments() {
+        MongoCollectionResult result = new MongoCollectionResult("collectionForTest");
+        result.add(new Document("_id", 1).append("label", "toto"));
+        result.add(new Document("_id", 2).append("price", 12));
+
+        ColumnInfo[] columnInfos = JsonTableUtils.buildJsonTable(result).getColumnInfos();
+
+        assertThat(getNames(columnInfos)).containsExactly("_id", "label", "price");
+        assertThat(columnInfos[1].valueOf(result.getDocuments().get(1))).isNull();
+    }
+
+    @Test
+    public void buildJsonTableWithFlattenedNestedDocuments() {
+        List<Document> documents = Collections.singletonList(new Document("_id", 1)
+                .append("doc", new Document("title", "hello").append("author", new Document("name", "john")))
+                .append("tags", Arrays.asList("a", "b")));
+
+        ListTableModel tableModel = JsonTableUtils.buildJsonTable(documents, JsonTableUtils.extractColumnNames(documents, true));
+
+        ColumnInfo[] columnInfos = tableModel.getColumnInfos();
+        assertThat(getNames(columnInfos)).containsExactly("_id", "doc.title", "doc.author.name", "tags");
+        assertThat(columnInfos[2].valueOf(documents.get(0))).isEqualTo("john");
+    }
+
+    @Test
+    public void extractColumnNamesStopsAtTheMaxNumberOfColumns() {
+        Document wideDocument = new Document();
+        for (int i = 0; i < JsonTableUtils.MAX_COLUMNS + 10; i++) {
+            wideDocument.append("field" + i, i);
+        }
+
+        Set<List<String>> columnNames = JsonTableUtils.extractColumnNames(Arrays.asList(wideDocument, new Document("other", 1)), false);
+
+        assertThat(columnNames).hasSize(JsonTableUtils.MAX_COLUMNS);
+        assertThat(columnNames).doesNotContain(Collections.singletonList("other"));
+    }
+
+    private static List<String> getNames(ColumnInfo[] columnInfos) {
+        return Arrays.stream(columnInfos).map(ColumnInfo::getName).collect(Collectors.toList());
+    }
+}
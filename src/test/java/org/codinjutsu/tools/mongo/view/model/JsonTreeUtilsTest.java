@@ -24,6 +24,9 @@ import org.bson.types.ObjectId;
 import org.codinjutsu.tools.mongo.view.BsonTest;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -101,4 +104,38 @@ public class JsonTreeUtilsTest implements BsonTest {
                                 ))
         );
     }
+
+    @Test
+    public void buildJsonTreeBuildsNestedNodesOnlyWhenAskedFor() throws Exception {
+        Document document = buildDocument("/testData/simpleDocumentWithSubList.json");
+
+        JsonTreeNode rootNode = (JsonTreeNode) JsonTreeUtils.buildJsonTree("books", asList(document), 0);
+        JsonTreeNode documentNode = (JsonTreeNode) rootNode.getChildAt(0);
+        assertThat(documentNode.isChildrenLoaded()).isFalse();
+        assertThat(documentNode.isLeaf()).isFalse();
+
+        JsonTreeNode innerListNode = (JsonTreeNode) documentNode.getChildAt(3);
+        assertThat(documentNode.isChildrenLoaded()).isTrue();
+        assertThat(innerListNode.isChildrenLoaded()).isFalse();
+        assertThat(innerListNode.getChildCount()).isEqualTo(3);
+
+        JsonTreeNode titleNode = (JsonTreeNode) documentNode.getChildAt(1);
+        assertThat(titleNode.isLeaf()).isTrue();
+    }
+
+    @Test
+    public void buildJsonTreeInParallelKeepsTheOrderOfTheDocuments() {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            documents.add(new Document("rank", i).append("tags", asList("a", "b")));
+        }
+
+        JsonTreeNode rootNode = JsonTreeUtils.buildJsonTreeInParallel("books", documents, 10);
+
+        assertThat(rootNode.getChildCount()).isEqualTo(500);
+        JsonTreeNode documentNode = (JsonTreeNode) rootNode.getChildAt(42);
+        assertThat(documentNode.isChildrenLoaded()).isTrue();
+        assertThat(documentNode.getDescriptor().getKey()).isEqualTo("[52]");
+        assertThat(documentNode.getDescriptor().getValue()).isEqualTo(documents.get(42));
+    }
 }
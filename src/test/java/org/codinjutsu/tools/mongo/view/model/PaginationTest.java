@@ -57,4 +57,52 @@ public class PaginationTest {
         pagination.setNbPerPage(NbPerPage.TEN);
         assertThat(pagination.getTotalPageNumber()).isEqualTo(30);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void hasNextPageWhenTotalIsUnknownAndCurrentPageIsFull() {
+        Pagination pagination = new Pagination();
+        pagination.setNbPerPage(NbPerPage.TEN);
+        pagination.setTotalDocuments(Pagination.UNKNOWN_TOTAL_DOCUMENTS);
+
+        pagination.setCurrentPageSize(10);
+        assertThat(pagination.hasNextPage()).isTrue();
+
+        pagination.setCurrentPageSize(7);
+        assertThat(pagination.hasNextPage()).isFalse();
+    }
+
+    @Test
+    public void getPageLimitWithinRowLimit() {
+        Pagination pagination = new Pagination();
+        pagination.setNbPerPage(NbPerPage.TEN);
+        assertThat(pagination.getPageLimit(0)).isEqualTo(10);
+        assertThat(pagination.getPageLimit(25)).isEqualTo(10);
+
+        pagination.setPageNumber(3);
+        assertThat(pagination.getPageLimit(25)).isEqualTo(5);
+
+        pagination.setPageNumber(4);
+        assertThat(pagination.getPageLimit(25)).isEqualTo(0);
+
+        pagination.setPageNumber(3);
+        assertThat(pagination.getPageLimit(20)).isEqualTo(0);
+    }
+
+    @Test
+    public void hasNoNextPageWhenAllDocumentsAreDisplayed() {
+        Pagination pagination = new Pagination();
+        pagination.setTotalDocuments(300);
+        assertThat(pagination.hasNextPage()).isFalse();
+        assertThat(pagination.hasPreviousPage()).isFalse();
+    }
+
+    @Test
+    public void serverSideModeIsIgnoredWhenAllDocumentsAreDisplayed() {
+        Pagination pagination = new Pagination();
+        pagination.setPaginationMode(PaginationMode.SERVER_SIDE);
+        assertThat(pagination.isServerSide()).isFalse();
+
+        pagination.setNbPerPage(NbPerPage.TWENTY);
+        assertThat(pagination.isServerSide()).isTrue();
+    }
+}